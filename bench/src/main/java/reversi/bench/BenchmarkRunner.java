@@ -0,0 +1,41 @@
+package reversi.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * The starting point of the benchmarks: runs JMH with the usual command line options, always with the GC
+ * profiler (the allocation rate per operation), and writes the results to a JSON file, which can be compared
+ * between the releases.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The default file of the results.
+     */
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    /**
+     * The starting point of the benchmarks.
+     *
+     * @param args The JMH command line options (for example a regular expression of the benchmarks to run).
+     * @throws Exception If the options are wrong or the benchmarks fail.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse(RESULT_FILE));
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("reversi\\.bench\\..*");
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks of the methods of the board over the midgame corpus (the time per position).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    /**
+     * The positions of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The first possible move of the black player in each position.
+     */
+    private Point[] moves;
+
+
+    /**
+     * Preparing the corpus and the moves.
+     */
+    @Setup
+    public void setUp() {
+        boards = MidgameCorpus.positions();
+        moves = new Point[boards.length];
+        for (int index = 0; index < boards.length; index++) {
+            moves[index] = Board.toPoint(Long.numberOfTrailingZeros(boards[index].getPossibleMovesMask(Color.BLACK)));
+        }
+    }
+
+
+    /**
+     * Benchmark of finding the possible moves as positions.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void getPossibleMoves(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.getPossibleMoves(Color.BLACK));
+        }
+    }
+
+
+    /**
+     * Benchmark of copying a board, the baseline of {@link #putNewDisk(Blackhole)}.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void copyBoard(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(new Board(board));
+        }
+    }
+
+
+    /**
+     * Benchmark of putting a disk on a copy of the board.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void putNewDisk(Blackhole blackhole) {
+        for (int index = 0; index < boards.length; index++) {
+            Board board = new Board(boards[index]);
+            board.putNewDisk(Color.BLACK, moves[index]);
+            blackhole.consume(board);
+        }
+    }
+
+
+    /**
+     * Benchmark of counting the disks.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void countDisks(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.countDisks(Color.BLACK));
+        }
+    }
+
+
+    /**
+     * Benchmark of checking whether the board is full.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void isBoardFull(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.isBoardFull());
+        }
+    }
+}
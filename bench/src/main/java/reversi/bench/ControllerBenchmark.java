@@ -0,0 +1,63 @@
+package reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reversi.logic.BoardController;
+import reversi.object.Board;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks of the board controller over the midgame corpus (the time per position).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+    /**
+     * The controllers of the positions of the corpus.
+     */
+    private BoardController[] controllers;
+
+
+    /**
+     * Preparing the controllers.
+     */
+    @Setup
+    public void setUp() {
+        Board[] boards = MidgameCorpus.positions();
+        controllers = new BoardController[boards.length];
+        for (int index = 0; index < boards.length; index++) {
+            controllers[index] = new BoardController(boards[index]);
+        }
+    }
+
+
+    /**
+     * Benchmark of checking whether the game is over.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void isGameOver(Blackhole blackhole) {
+        for (BoardController controller : controllers) {
+            blackhole.consume(controller.isGameOver());
+        }
+    }
+}
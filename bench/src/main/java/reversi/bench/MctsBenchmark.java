@@ -0,0 +1,106 @@
+package reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reversi.logic.MctsSearch;
+import reversi.logic.PatternEvaluator;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks of the Monte Carlo tree search over the midgame corpus (the playouts per second), with and without
+ * the prior of the pattern evaluator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MctsBenchmark {
+
+    /**
+     * The number of playouts of a position.
+     */
+    private static final int PLAYOUTS = 2000;
+
+    /**
+     * The positions of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The search without a prior.
+     */
+    private MctsSearch search;
+
+    /**
+     * The search with the prior of the pattern evaluator.
+     */
+    private MctsSearch searchWithPrior;
+
+
+    /**
+     * Preparing the corpus and the searches.
+     */
+    @Setup
+    public void setUp() {
+        boards = MidgameCorpus.positions();
+        search = new MctsSearch(1, MctsSearch.DEFAULT_MAX_NODES, null);
+        search.setPlayoutBudget(PLAYOUTS);
+        searchWithPrior = new MctsSearch(1, MctsSearch.DEFAULT_MAX_NODES, PatternEvaluator::new);
+        searchWithPrior.setPlayoutBudget(PLAYOUTS);
+    }
+
+
+    /**
+     * Closing the searches.
+     */
+    @TearDown
+    public void tearDown() {
+        search.close();
+        searchWithPrior.close();
+    }
+
+
+    /**
+     * Benchmark of the playouts without a prior.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE * PLAYOUTS)
+    public void playouts(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(search.search(board, Color.BLACK, 0, 0));
+        }
+    }
+
+
+    /**
+     * Benchmark of the playouts with the prior of the pattern evaluator.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE * PLAYOUTS)
+    public void playoutsWithPrior(Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(searchWithPrior.search(board, Color.BLACK, 0, 0));
+        }
+    }
+}
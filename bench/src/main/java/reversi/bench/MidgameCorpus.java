@@ -0,0 +1,41 @@
+package reversi.bench;
+
+import reversi.object.Board;
+import reversi.tools.Positions;
+
+import java.util.List;
+
+
+/**
+ * Class of the fixed corpus of the midgame positions, used by all the benchmarks.
+ * The positions are made by random moves from a fixed seed (java.util.Random gives the same sequence on every
+ * JVM), so the numbers of different releases are comparable.
+ */
+public class MidgameCorpus {
+
+    /**
+     * The number of positions of the corpus.
+     */
+    public static final int SIZE = 64;
+
+    /**
+     * The number of random moves, which lead to a position.
+     */
+    private static final int PLIES = 20;
+
+    /**
+     * The seed of the random moves.
+     */
+    private static final long SEED = 20_240_601L;
+
+
+    /**
+     * Creating the positions of the corpus (new boards on every call, so the benchmarks can change them).
+     *
+     * @return The boards with the black player to move.
+     */
+    public static Board[] positions() {
+        List<Board> positions = Positions.randomPositions(SIZE, PLIES, SEED);
+        return positions.toArray(new Board[0]);
+    }
+}
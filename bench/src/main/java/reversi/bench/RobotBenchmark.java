@@ -0,0 +1,96 @@
+package reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reversi.logic.SearchEngine;
+import reversi.logic.TranspositionTable;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.player.RobotPlayer;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks of the searches of the easy and hard robots over the midgame corpus (the time per position).
+ * The hard robot searches by a time budget, so its search is measured at a fixed depth instead. The table is
+ * cleared before every position, so the positions searched in the earlier invocations do not help.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RobotBenchmark {
+
+    /**
+     * The depth of the search of the hard robot.
+     */
+    private static final int HARD_DEPTH = 6;
+
+    /**
+     * The size of the transposition table (in megabytes), small enough to be cleared for every position.
+     */
+    private static final int TABLE_SIZE_MB = 1;
+
+    /**
+     * The positions of the corpus.
+     */
+    private Board[] boards;
+
+    /**
+     * The search of the robot.
+     */
+    private SearchEngine engine;
+
+
+    /**
+     * Preparing the corpus and the search.
+     */
+    @Setup
+    public void setUp() {
+        boards = MidgameCorpus.positions();
+        engine = new SearchEngine(new TranspositionTable(TABLE_SIZE_MB));
+    }
+
+
+    /**
+     * Benchmark of the search of the easy mode.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void easyMode(Blackhole blackhole) {
+        for (Board board : boards) {
+            engine.getTranspositionTable().clear();
+            blackhole.consume(engine.search(board, Color.BLACK, RobotPlayer.EASY_DEPTH, 0));
+        }
+    }
+
+
+    /**
+     * Benchmark of the search of the hard mode at a fixed depth.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MidgameCorpus.SIZE)
+    public void hardMode(Blackhole blackhole) {
+        for (Board board : boards) {
+            engine.getTranspositionTable().clear();
+            blackhole.consume(engine.search(board, Color.BLACK, HARD_DEPTH, 0));
+        }
+    }
+}
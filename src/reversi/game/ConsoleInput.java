@@ -2,22 +2,64 @@ package reversi.game;
 
 import java.awt.*;
 import java.io.InputStreamReader;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * Class for reading the input from console.
+ * The lines are read by a background thread into a queue, so the game can wait for a line with a timeout
+ * and do other things meanwhile (see {@link #pollLine(long)}).
  */
 public class ConsoleInput {
 
+    /**
+     * The mark of the end of the input in the queue of the lines.
+     */
+    private static final String END_OF_INPUT = new String();
+
     /**
      * The reader of the input, provided by the user.
      */
     private static Scanner reader;
 
+    /**
+     * The lines read from the input and not taken yet.
+     */
+    private static final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    /**
+     * The thread reading the input (null until the first console is created).
+     */
+    private static Thread readerThread;
+
 
     public ConsoleInput() {
-        reader = new Scanner(new InputStreamReader(System.in));
+        synchronized (ConsoleInput.class) {
+            if (readerThread == null) {
+                reader = new Scanner(new InputStreamReader(System.in));
+                readerThread = new Thread(ConsoleInput::readLines, "console-input");
+                readerThread.setDaemon(true);
+                readerThread.start();
+            }
+        }
+    }
+
+
+    /**
+     * Method for reading the lines of the input into the queue, until the input ends.
+     */
+    private static void readLines() {
+        try {
+            while (reader.hasNextLine()) {
+                lines.add(reader.nextLine());
+            }
+        } finally {
+            lines.add(END_OF_INPUT);
+        }
     }
 
 
@@ -25,9 +67,52 @@ public class ConsoleInput {
      * Method for reading a line.
      *
      * @return The line, which was read.
+     * @throws NoSuchElementException If the input is over.
      */
     public String readLine() {
-        return reader.nextLine();
+        try {
+            return takeLine(lines.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NoSuchElementException("The reading of the input was interrupted.");
+        }
+    }
+
+
+    /**
+     * Method for reading a line, if it is entered within the timeout.
+     *
+     * @param timeoutMillis The timeout in milliseconds.
+     * @return The line, or null if no line was entered (or the input is over).
+     */
+    public String pollLine(long timeoutMillis) {
+        try {
+            String line = lines.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (line == END_OF_INPUT) {
+                lines.add(END_OF_INPUT);
+                return null;
+            }
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+
+    /**
+     * Method for checking a line taken from the queue.
+     *
+     * @param line The line.
+     * @return The line.
+     * @throws NoSuchElementException If the line marks the end of the input (the mark is kept in the queue).
+     */
+    private static String takeLine(String line) {
+        if (line == END_OF_INPUT) {
+            lines.add(END_OF_INPUT);
+            throw new NoSuchElementException("No line found");
+        }
+        return line;
     }
 
 
@@ -38,7 +123,7 @@ public class ConsoleInput {
      */
     public Point readPosition() {
         System.out.println("Input position: ");
-        String line = reader.nextLine().trim();
+        String line = readLine().trim();
         try {
             if (line.equals("-1 -1")) {
                 return new Point(-1, -1);
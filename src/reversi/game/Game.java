@@ -1,23 +1,56 @@
 package reversi.game;
 
-import java.util.HashMap;
-import java.util.Map;
+import reversi.record.GameRecordWriter;
+import reversi.record.StatisticsStore;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Game {
 
+    /**
+     * The system property with the path of the archive, where the played rounds are appended.
+     */
+    public static final String GAMES_PROPERTY = "reversi.games";
+
+    /**
+     * The default path of the archive of the played rounds.
+     */
+    public static final String DEFAULT_GAMES_PATH = "games.bin";
+
+    /**
+     * The system property with the path of the directory of the statistics.
+     */
+    public static final String STATISTICS_PROPERTY = "reversi.statistics";
+
+    /**
+     * The default path of the directory of the statistics.
+     */
+    public static final String DEFAULT_STATISTICS_PATH = "statistics";
+
+    /**
+     * The number of the best players shown by the statistics.
+     */
+    public static final int TOP_PLAYERS = 10;
+
     /**
      * Console, which is used to interact with the user.
      */
     private final ConsoleInput console;
 
     /**
-     * Map with statistics (name: best result).
+     * Store with statistics (name: best result).
      */
-    private final Map<String, Integer> statistics;
+    private StatisticsStore statistics;
+
+    /**
+     * The archive of the played rounds (null if it cannot be opened).
+     */
+    private GameRecordWriter archive;
 
     public Game() {
         console = new ConsoleInput();
-        statistics = new HashMap<>();
+        statistics = new StatisticsStore();
     }
 
 
@@ -28,7 +61,83 @@ public class Game {
         System.out.println();
         System.out.println("The game has started.");
         printInstruction();
+        openArchive();
+        openStatistics();
         readCommand();
+        closeArchive();
+        closeStatistics();
+    }
+
+
+    /**
+     * Method for opening the statistics saved by the earlier games (if they cannot be opened, the statistics
+     * are kept in memory only).
+     */
+    private void openStatistics() {
+        try {
+            statistics = new StatisticsStore(Paths.get(System.getProperty(STATISTICS_PROPERTY,
+                    DEFAULT_STATISTICS_PATH)));
+        } catch (IOException e) {
+            System.out.println("The statistics won't be saved: " + e.getMessage());
+            statistics = new StatisticsStore();
+        }
+    }
+
+
+    /**
+     * Method for saving and closing the statistics.
+     */
+    private void closeStatistics() {
+        try {
+            statistics.close();
+        } catch (IOException e) {
+            System.out.println("The statistics couldn't be saved: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Method for opening the archive of the played rounds.
+     */
+    private void openArchive() {
+        try {
+            archive = new GameRecordWriter(Paths.get(System.getProperty(GAMES_PROPERTY, DEFAULT_GAMES_PATH)));
+        } catch (IOException e) {
+            System.out.println("The rounds won't be saved: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Method for appending the record of a finished round to the archive.
+     *
+     * @param round The finished round.
+     */
+    private void saveRound(Round round) {
+        if (archive == null) {
+            return;
+        }
+        try {
+            archive.append(round.getRecord());
+            archive.flush();
+        } catch (IOException e) {
+            System.out.println("The round couldn't be saved: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Method for closing the archive of the played rounds.
+     */
+    private void closeArchive() {
+        if (archive == null) {
+            return;
+        }
+        try {
+            archive.close();
+        } catch (IOException e) {
+            System.out.println("The archive of the rounds couldn't be closed: " + e.getMessage());
+        }
     }
 
 
@@ -52,6 +161,8 @@ public class Game {
         System.out.println();
         System.out.println("When playing with the robot, you can revert your move by printing '-1 -1'.");
         System.out.println("You can revert any move until the game is over.");
+        System.out.println("While the robot thinks, you can revert your move ('-1 -1'), quit the round ('-q')");
+        System.out.println("or show the board and the best move of the robot so far (an empty line).");
         System.out.println("Reverting the move is not possible in the game of 2 users (because of logic).");
         System.out.println("If you're playing with the robot, you'll always be the first player (black disks).");
         System.out.println("                            Good luck!");
@@ -62,13 +173,14 @@ public class Game {
 
 
     /**
-     * Method for printing the statistics to console (name: best result).
+     * Method for printing the statistics to console (name: best result), for the best {@link #TOP_PLAYERS}
+     * players.
      */
     public void printStatistics() {
-        System.out.println("The best result of each player.");
+        System.out.println("The best results of the top " + TOP_PLAYERS + " of " + statistics.size() + " players.");
         System.out.println();
-        for (String name : statistics.keySet()) {
-            System.out.println(name + ": " + statistics.get(name));
+        for (StatisticsStore.Entry entry : statistics.getTop(TOP_PLAYERS)) {
+            System.out.println(entry.getName() + ": " + entry.getResult());
         }
         System.out.println();
         System.out.println();
@@ -83,12 +195,10 @@ public class Game {
      * @param result The new result of the player (is added to statistics if it is the highest overall).
      */
     public void updateResult(String name, Integer result) {
-        if (statistics.containsKey(name)) {
-            if (statistics.get(name) < result) {
-                statistics.put(name, result);
-            }
-        } else {
-            statistics.put(name, result);
+        try {
+            statistics.updateResult(name, result);
+        } catch (IOException e) {
+            System.out.println("The result couldn't be saved: " + e.getMessage());
         }
     }
 
@@ -105,6 +215,7 @@ public class Game {
         System.out.println("-r1  - start new round for 2 users;");
         System.out.println("-r2  - start new round with a robot, level: easy;");
         System.out.println("-r3  - start new round with a robot, level: hard;");
+        System.out.println("-r4  - start new round with a robot, level: Monte Carlo;");
         System.out.println("-s   - show statistics;");
         System.out.println("-q   - quit");
         System.out.println();
@@ -117,16 +228,30 @@ public class Game {
         } else if (input.equals("-r1")) {
             Round round = new RoundTwoUsers(console);
             round.startRound();
+            saveRound(round);
             updateResult(round.getPlayerName(1), round.getResult(1));
             updateResult(round.getPlayerName(2), round.getResult(2));
         } else if (input.equals("-r2")) {
             Round round = new RoundWithRobot(console, "easy");
             round.startRound();
-            updateResult(round.getPlayerName(1), round.getResult(1));
+            if (!round.isAbandoned()) {
+                saveRound(round);
+                updateResult(round.getPlayerName(1), round.getResult(1));
+            }
         } else if (input.equals("-r3")) {
             Round round = new RoundWithRobot(console, "hard");
             round.startRound();
-            updateResult(round.getPlayerName(1), round.getResult(1));
+            if (!round.isAbandoned()) {
+                saveRound(round);
+                updateResult(round.getPlayerName(1), round.getResult(1));
+            }
+        } else if (input.equals("-r4")) {
+            Round round = new RoundWithRobot(console, "mcts");
+            round.startRound();
+            if (!round.isAbandoned()) {
+                saveRound(round);
+                updateResult(round.getPlayerName(1), round.getResult(1));
+            }
         } else if (input.equals("-q")) {
             return;
         } else {
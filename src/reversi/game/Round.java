@@ -3,6 +3,7 @@ package reversi.game;
 import reversi.logic.BoardController;
 import reversi.object.Color;
 import reversi.player.Player;
+import reversi.record.GameRecord;
 
 import java.awt.Point;
 
@@ -32,6 +33,11 @@ public class Round {
      */
     protected BoardController controller;
 
+    /**
+     * Whether the round was quit before the game was over.
+     */
+    protected boolean abandoned;
+
     public Round(ConsoleInput console) {
         this.console = console;
         controller = new BoardController();
@@ -103,12 +109,33 @@ public class Round {
     }
 
 
+    /**
+     * Checks whether the round was quit before the game was over (its result is not saved then).
+     *
+     * @return True if the round was quit; false otherwise.
+     */
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+
+    /**
+     * Method for getting the record of the round: the moves played so far, the names and the disks.
+     *
+     * @return The record of the round.
+     */
+    public GameRecord getRecord() {
+        return GameRecord.fromController(controller, getPlayerName(1), getPlayerName(2));
+    }
+
+
     /**
      * Method for ending the round.
      * Prints the board, prints which of the players is the winner (or tells the users it's a tie).
      */
     public void endRound() {
-        System.out.println(controller.getBoard().toString());
+        controller.showBoard();
+        controller.getRenderer().close();
         System.out.println("");
         System.out.println("");
         System.out.println("The round is over.");
@@ -36,9 +36,7 @@ public class RoundTwoUsers extends Round {
             if (controller.canPutAnyDisk(players[currentPlayer].getColor())) {
                 putDiskOnBoard(players[currentPlayer].getColor());
             } else if (!controller.canPutAnyDisk(players[(currentPlayer + 1) % 2].getColor())) {
-                System.out.println(controller.getBoard());
                 System.out.println("None of the players can put the disk. The game is over.");
-                endRound();
                 break;
             }
             currentPlayer = (currentPlayer + 1) % 2;
@@ -1,13 +1,23 @@
 package reversi.game;
 
-import reversi.logic.ArtificialIntelligence;
-import reversi.object.Board;
+import reversi.logic.EndgameSolver;
+import reversi.logic.OpeningBook;
+import reversi.logic.SearchResult;
+import reversi.logic.Searcher;
 import reversi.object.Color;
 import reversi.player.Player;
+import reversi.player.Ponderer;
 import reversi.player.RobotPlayer;
 import reversi.player.UserPlayer;
 
 import java.awt.Point;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -16,32 +26,82 @@ import java.awt.Point;
  */
 public class RoundWithRobot extends Round {
 
+    /**
+     * How often the input of the user is checked while the robot thinks (in milliseconds).
+     */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * After how long thinking the robot reports its progress (in milliseconds).
+     */
+    private static final long PROGRESS_DELAY_MILLIS = 1000;
+
+    /**
+     * The searcher of the moves of the robot.
+     */
+    private final Searcher searcher;
+
+    /**
+     * The exact solver of the endgame of the robot.
+     */
+    private final EndgameSolver solver;
+
+    /**
+     * The opening book of the robot (null if there is none).
+     */
+    private final OpeningBook book;
+
+    /**
+     * The pondering of the robot while the user thinks (null if the robot does not ponder).
+     */
+    private final Ponderer ponderer;
+
+    /**
+     * The thread, which chooses the moves of the robot and ponders.
+     */
+    private final ExecutorService robotThread;
+
+    /**
+     * The last finished iteration of the current search of the robot (null if there is none yet).
+     */
+    private final AtomicReference<SearchResult> progress = new AtomicReference<>();
+
     /**
      * Constructor of the round. Gets the name of the user and assigns the player roles.
      * The user is always the first player (plays with black disks).
      *
      * @param console Console for interacting with the user.
-     * @param mode    Difficulty of the robot: easy or hard.
+     * @param mode    Difficulty of the robot: easy, hard or mcts (Monte Carlo).
      */
     public RoundWithRobot(ConsoleInput console, String mode) {
         super(console);
-        Player player2 = new RobotPlayer(mode, Color.WHITE);
+        RobotPlayer player2 = new RobotPlayer(mode, Color.WHITE);
         System.out.print("Input your name: ");
         Player player1 = new UserPlayer(inputName(), Color.BLACK);
         players = new Player[2];
         players[0] = player1;
         players[1] = player2;
+        searcher = player2.createSearcher();
+        solver = player2.createEndgameSolver();
+        book = player2.openBook();
+        robotThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "robot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ponderer = player2.isPondering() ? new Ponderer(player2, searcher, solver, book, robotThread) : null;
     }
 
 
     /**
      * Method for starting a round between a user and a robot.
-     * Until the round is over, the players are asked to take turns and put the disks on the field.
+     * Until the round is over (or the user quits it), the players are asked to take turns and put the disks
+     * on the field.
      */
     @Override
     public void startRound() {
         controller.updateHistory();
-        while (!controller.isGameOver()) {
+        while (!controller.isGameOver() && !abandoned) {
             if (controller.canPutAnyDisk(players[0].getColor())) {
                 putDiskOnBoardByUser();
             }
@@ -50,7 +110,17 @@ public class RoundWithRobot extends Round {
             }
             controller.updateHistory();
         }
-        endRound();
+        if (ponderer != null) {
+            ponderer.close();
+        }
+        robotThread.shutdownNow();
+        searcher.close();
+        if (abandoned) {
+            controller.getRenderer().close();
+            System.out.println("The round was quit.");
+        } else {
+            endRound();
+        }
     }
 
 
@@ -60,12 +130,14 @@ public class RoundWithRobot extends Round {
      */
     private void putDiskOnBoardByUser() {
         controller.showPossibleMoves(Color.BLACK);
+        startPondering();
         System.out.println("Your turn.");
         System.out.println("To undo the last move input -1 -1");
         Point positionOfDisk = console.readPosition();
         while (positionOfDisk.getX() == -1 && positionOfDisk.getY() == -1) {
             controller.eraseLastStepFromHistory();
             controller.showPossibleMoves(Color.BLACK);
+            startPondering();
             positionOfDisk = console.readPosition();
         }
         while (!controller.canPutDisk(players[0].getColor(), positionOfDisk)) {
@@ -77,16 +149,32 @@ public class RoundWithRobot extends Round {
 
 
     /**
-     * Method for asking the controller to put the disk on board, after the best position is found by the robot.
+     * Method for starting the pondering of the robot on the current position, if the robot ponders.
+     */
+    private void startPondering() {
+        if (ponderer != null) {
+            ponderer.start(controller.getBoard());
+        }
+    }
+
+
+    /**
+     * Method for asking the controller to put the disk on board, after the best position is found by the robot
+     * (see {@link RobotPlayer#chooseMoveAsync}). The answer found by the pondering is played at once.
+     * While the robot thinks, the user can revert their move or quit the round, then the robot puts no disk.
      */
     private void putDiskOnBoardByRobot() {
-        Point bestPosition;
-        Board copyBoard = new Board(controller.getBoard().getCells());
-        if (((RobotPlayer) players[1]).getMode() != 2) {
-            bestPosition = ArtificialIntelligence.searchBestPositionEasyMode(copyBoard, Color.WHITE);
-        } else {
-            bestPosition = ArtificialIntelligence.searchBestPositionHardMode(copyBoard, Color.WHITE);
+        RobotPlayer robot = (RobotPlayer) players[1];
+        SearchResult result = ponderer != null ? ponderer.takeResult(controller.getBoard()) : null;
+        if (result == null) {
+            progress.set(null);
+            result = waitForRobot(robot.chooseMoveAsync(controller.getBoard(), searcher, solver, book, robotThread,
+                    progress::set));
+            if (result == null) {
+                return;
+            }
         }
+        Point bestPosition = result.getPosition();
         if (bestPosition.x != -1 && bestPosition.y != -1) {
             controller.putDisk(Color.WHITE, bestPosition);
             System.out.println("Robot placed the disk on " + bestPosition.x + " " + bestPosition.y);
@@ -94,4 +182,68 @@ public class RoundWithRobot extends Round {
             System.out.println("Robot couldn't place the disk.");
         }
     }
+
+
+    /**
+     * Method for waiting for the move of the robot, while reading the commands of the user: -1 -1 reverts the
+     * move of the user, -q quits the round, any other line shows the board and the best move so far.
+     * The search is cancelled, if the move is reverted or the round is quit.
+     *
+     * @param future The future move of the robot.
+     * @return The result of the search, or null if it was cancelled.
+     */
+    private SearchResult waitForRobot(CompletableFuture<SearchResult> future) {
+        long start = System.nanoTime();
+        int shownDepth = 0;
+        while (true) {
+            try {
+                return future.get(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // the robot is still thinking
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(false);
+                abandoned = true;
+                return null;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("The robot couldn't choose a move.", e.getCause());
+            }
+            String line = console.pollLine(0);
+            SearchResult current = progress.get();
+            if (line != null && line.trim().equals("-1 -1")) {
+                future.cancel(false);
+                controller.updateHistory();
+                controller.eraseLastStepFromHistory();
+                return null;
+            } else if (line != null && line.trim().equalsIgnoreCase("-q")) {
+                future.cancel(false);
+                abandoned = true;
+                return null;
+            } else if (line != null) {
+                controller.getRenderer().invalidate();
+                controller.showBoard();
+                showProgress(current);
+            } else if (current != null && current.getDepth() != shownDepth &&
+                    System.nanoTime() - start > PROGRESS_DELAY_MILLIS * 1_000_000) {
+                shownDepth = current.getDepth();
+                showProgress(current);
+            }
+        }
+    }
+
+
+    /**
+     * Method for printing the progress of the search of the robot.
+     *
+     * @param current The last finished iteration of the search (null if there is none yet).
+     */
+    private void showProgress(SearchResult current) {
+        if (current == null) {
+            System.out.println("Robot is thinking...");
+        } else {
+            Point position = current.getPosition();
+            System.out.println("Robot is thinking: depth " + current.getDepth() + ", best move so far " +
+                    position.x + " " + position.y);
+        }
+    }
 }
@@ -1,34 +1,81 @@
 package reversi.logic;
 
 import reversi.object.Board;
-import reversi.object.Cell;
 import reversi.object.Color;
+import reversi.object.TerminalRenderer;
 
 
 import java.awt.Point;
-import java.util.Map;
-import java.util.Set;
-import java.util.Stack;
+import java.util.Arrays;
 
 
 /**
  * Class of the controller of the board.
+ * The history of the game is kept as the deltas of the moves (the cell and the mask of the flipped disks), so
+ * a move can be taken back and made again in place, without copies of the board. The moves after the current
+ * ply are kept until a new move is made, so they can be redone.
  */
 public class BoardController {
 
+    /**
+     * The initial capacity of the history (the number of moves).
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The flag of a move of the white player in {@link #moves}.
+     */
+    private static final int WHITE_MOVE = 64;
+
     /**
      * The board, which id being managed.
      */
-    private Board board;
+    private final Board board;
+
+    /**
+     * The cells of the moves of the history, with {@link #WHITE_MOVE} added for the white player.
+     */
+    private byte[] moves;
+
+    /**
+     * The disks flipped by the moves of the history.
+     */
+    private long[] flips;
+
+    /**
+     * The number of moves in the history (including the taken back moves, which can be redone).
+     */
+    private int length;
 
     /**
-     * The history of the moves.
+     * The number of moves made on the board (the current ply).
      */
-    private final Stack<Map<Point, Cell>> history;
+    private int ply;
+
+    /**
+     * The plies saved by {@link #updateHistory()}, to which {@link #eraseLastStepFromHistory()} goes back.
+     */
+    private int[] checkpoints;
+
+    /**
+     * The number of saved plies.
+     */
+    private int checkpointCount;
+
+    /**
+     * The view of the board (null until the board is shown first).
+     */
+    private TerminalRenderer renderer;
 
     public BoardController() {
-        this.board = new Board();
-        history = new Stack<>();
+        this(new Board());
+    }
+
+    public BoardController(Board board) {
+        this.board = board;
+        moves = new byte[INITIAL_CAPACITY];
+        flips = new long[INITIAL_CAPACITY];
+        checkpoints = new int[INITIAL_CAPACITY];
     }
 
 
@@ -48,8 +95,7 @@ public class BoardController {
      * @return True if the game is over; false otherwise.
      */
     public boolean isGameOver() {
-        return (board.isBoardFull() || board.countDisks(Color.BLACK) == 0 || board.countDisks(Color.WHITE) == 0 ||
-                (!(canPutAnyDisk(Color.BLACK) || canPutAnyDisk(Color.WHITE))));
+        return !(canPutAnyDisk(Color.BLACK) || canPutAnyDisk(Color.WHITE));
     }
 
 
@@ -60,7 +106,7 @@ public class BoardController {
      * @return True if any disk can be put; false otherwise.
      */
     public boolean canPutAnyDisk(Color color) {
-        return board.getPossibleMoves(color).size() > 0;
+        return board.getPossibleMovesMask(color) != 0;
     }
 
 
@@ -72,7 +118,8 @@ public class BoardController {
      * @return True if the disk can be put in this position; false otherwise.
      */
     public boolean canPutDisk(Color color, Point position) {
-        return board.getPossibleMoves(color).contains(position);
+        return position.x >= 0 && position.x < 8 && position.y >= 0 && position.y < 8 &&
+                board.isPossibleMove(color, Board.toSquare(position.x, position.y));
     }
 
 
@@ -83,29 +130,70 @@ public class BoardController {
      * @param positionOfDisk The position of the disk.
      */
     public void putDisk(Color color, Point positionOfDisk) {
-        board.putNewDisk(color, positionOfDisk);
+        int square = Board.toSquare(positionOfDisk.x, positionOfDisk.y);
+        long flipped = board.getFlips(color, square);
+        board.applyMove(color, square, flipped);
+        if (ply == moves.length) {
+            moves = Arrays.copyOf(moves, ply * 2);
+            flips = Arrays.copyOf(flips, ply * 2);
+        }
+        moves[ply] = (byte) (color == Color.WHITE ? square + WHITE_MOVE : square);
+        flips[ply] = flipped;
+        ply++;
+        length = ply;
+        while (checkpointCount > 0 && checkpoints[checkpointCount - 1] > ply) {
+            checkpointCount--;
+        }
     }
 
 
     /**
-     * Marks the possible moves on the printed board and writes the coordinates of the possible positions to put a disk.
+     * Shows the board with the possible moves marked as hints and writes the coordinates of the possible positions
+     * to put a disk. The board is not changed.
      *
      * @param color The color of the disk.
      */
     public void showPossibleMoves(Color color) {
-        Set<Point> possibleMoves = board.getPossibleMoves(color);
-        for (Point position : possibleMoves) {
-            board.updateCell(Cell.POSSIBLE, position);
+        long moves = board.getPossibleMovesMask(color);
+        getRenderer().render(board, moves);
+        StringBuilder positions = new StringBuilder("Possible positions (row column): ");
+        positions.append(System.lineSeparator());
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            positions.append(square >> 3).append(' ').append(square & 7).append(";\t");
         }
-        System.out.print(board);
-        System.out.println("Possible positions (row column): ");
-        for (Point position : possibleMoves) {
-            System.out.print(position.x + " " + position.y + ";\t");
-        }
-        System.out.println();
-        for (Point position : possibleMoves) {
-            board.updateCell(Cell.EMPTY, position);
+        System.out.println(positions);
+    }
+
+
+    /**
+     * Shows the board without the hints.
+     */
+    public void showBoard() {
+        getRenderer().render(board, 0);
+    }
+
+
+    /**
+     * Get the view of the board (the renderer of the standard output, unless another one was set).
+     *
+     * @return The renderer.
+     */
+    public TerminalRenderer getRenderer() {
+        if (renderer == null) {
+            renderer = TerminalRenderer.forConsole();
         }
+        return renderer;
+    }
+
+
+    /**
+     * Set the view of the board.
+     *
+     * @param renderer The renderer.
+     */
+    public void setRenderer(TerminalRenderer renderer) {
+        this.renderer = renderer;
     }
 
 
@@ -113,19 +201,128 @@ public class BoardController {
      * Erases the last state of history of moves, if it's not the starting point of the game.
      */
     public void eraseLastStepFromHistory() {
-        if (history.size() > 1) {
-            history.pop();
-            board = new Board(history.peek());
-        } else {
+        if (!goToPreviousCheckpoint()) {
             System.out.println("You cannot revert any more moves.");
         }
     }
 
 
     /**
-     * Method for updating the history of moves.
+     * Going back to the ply saved by {@link #updateHistory()} before the last saved one.
+     *
+     * @return True if the board went back; false if there is no earlier saved ply.
+     */
+    public boolean goToPreviousCheckpoint() {
+        if (checkpointCount <= 1) {
+            return false;
+        }
+        checkpointCount--;
+        goToPly(checkpoints[checkpointCount - 1]);
+        return true;
+    }
+
+
+    /**
+     * Method for updating the history of moves: saves the current ply as a point to go back to.
      */
     public void updateHistory() {
-        history.push(board.getCells());
+        if (checkpointCount > 0 && checkpoints[checkpointCount - 1] == ply) {
+            return;
+        }
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+        }
+        checkpoints[checkpointCount++] = ply;
+    }
+
+
+    /**
+     * Taking back the last made move.
+     *
+     * @return True if a move was taken back; false at the starting point of the game.
+     */
+    public boolean undo() {
+        if (ply == 0) {
+            return false;
+        }
+        ply--;
+        board.revertMove(getMoveColor(ply), getMoveSquare(ply), flips[ply]);
+        return true;
+    }
+
+
+    /**
+     * Making again the last taken back move.
+     *
+     * @return True if a move was made; false if there is no taken back move.
+     */
+    public boolean redo() {
+        if (ply == length) {
+            return false;
+        }
+        board.applyMove(getMoveColor(ply), getMoveSquare(ply), flips[ply]);
+        ply++;
+        return true;
+    }
+
+
+    /**
+     * Going to the given ply of the history, by taking back or making again the moves between it and
+     * the current ply.
+     *
+     * @param target The ply (from 0, the starting point of the game, to {@link #getHistoryLength()}).
+     */
+    public void goToPly(int target) {
+        if (target < 0 || target > length) {
+            throw new IllegalArgumentException("No ply " + target + " in the history of " + length + " moves");
+        }
+        while (ply > target) {
+            undo();
+        }
+        while (ply < target) {
+            redo();
+        }
+    }
+
+
+    /**
+     * Get the number of moves made on the board.
+     *
+     * @return The current ply.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+
+    /**
+     * Get the number of moves in the history, including the taken back moves, which can be redone.
+     *
+     * @return The length of the history.
+     */
+    public int getHistoryLength() {
+        return length;
+    }
+
+
+    /**
+     * Get the cell of a move of the history.
+     *
+     * @param index The index of the move (from 0 to {@link #getHistoryLength()} - 1).
+     * @return The index of the cell.
+     */
+    public int getMoveSquare(int index) {
+        return moves[index] & (WHITE_MOVE - 1);
+    }
+
+
+    /**
+     * Get the color of the player, who made a move of the history.
+     *
+     * @param index The index of the move (from 0 to {@link #getHistoryLength()} - 1).
+     * @return The color of the player.
+     */
+    public Color getMoveColor(int index) {
+        return (moves[index] & WHITE_MOVE) != 0 ? Color.WHITE : Color.BLACK;
     }
 }
@@ -0,0 +1,643 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Class of the exact endgame solver of the robot: searches the game to its end and scores the positions with
+ * the final difference of the disks, so the chosen move is perfect.
+ * The solver works on raw bitboards (the disks of the player to move and of the opponent). The moves are
+ * ordered fastest-first (the replies, which leave the opponent the fewest moves, first) far from the end,
+ * and by parity (the moves in the regions with an odd number of empty cells first) close to it. The last
+ * four empty cells are solved by special unrolled code. In the win/loss/draw mode only the sign of the score
+ * is searched, which is much faster.
+ * A solver is not thread-safe: each thread needs its own solver.
+ */
+public class EndgameSolver {
+
+    /**
+     * The default largest number of empty cells, at which the robot switches to the solver.
+     */
+    public static final int DEFAULT_EMPTIES = 14;
+
+    /**
+     * The number of empty cells, above which the moves are ordered fastest-first.
+     */
+    private static final int FASTEST_FIRST_EMPTIES = 5;
+
+    /**
+     * The number of empty cells, above which the positions are cached in the transposition table.
+     */
+    private static final int TABLE_EMPTIES = 6;
+
+    /**
+     * The number of nodes between two checks of the time budget (counting the nodes of the last empty cells).
+     */
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    /**
+     * The score bound, higher than any difference of the disks.
+     */
+    private static final int SCORE_BOUND = 65;
+
+    /**
+     * The masks of the four quadrants of the board, used for the parity ordering.
+     */
+    private static final long[] QUADRANTS = {
+            0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+
+    /**
+     * The quadrant of each cell.
+     */
+    private static final int[] QUADRANT_OF = new int[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            for (int quadrant = 0; quadrant < 4; quadrant++) {
+                if ((QUADRANTS[quadrant] & (1L << square)) != 0) {
+                    QUADRANT_OF[square] = quadrant;
+                }
+            }
+        }
+    }
+
+    /**
+     * The cache of the solved positions.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The moves of each ply of the search path, sorted for searching.
+     */
+    private final int[][] moveLists;
+
+    /**
+     * The sorting keys of {@link #moveLists}.
+     */
+    private final int[][] moveKeys;
+
+    /**
+     * The number of positions visited by the current solve.
+     */
+    private long nodes;
+
+    /**
+     * The number of nodes, at which the time budget is checked next.
+     */
+    private long nextCheck;
+
+    /**
+     * The moment (System.nanoTime) when the current solve has to stop.
+     */
+    private long deadline;
+
+    /**
+     * The condition, which stops the solve from outside, or null.
+     */
+    private BooleanSupplier stopCondition;
+
+    /**
+     * Whether the current solve was stopped.
+     */
+    private boolean stopped;
+
+    public EndgameSolver() {
+        this(new TranspositionTable(SearchEngine.DEFAULT_TABLE_SIZE_MB));
+    }
+
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+        moveLists = new int[64][64];
+        moveKeys = new int[64][64];
+    }
+
+
+    /**
+     * Solving the position exactly. The given board is not changed.
+     *
+     * @param board            The analysed board.
+     * @param color            The color of the player to move.
+     * @param winLossDraw      True to find only whether the game is won, lost or drawn (the score is then
+     *                         1, -1 or 0); false for the exact final difference of the disks.
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     * @return The best move with its score, or null if the solve did not finish in time.
+     */
+    public SearchResult solve(Board board, Color color, boolean winLossDraw, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+        nextCheck = TIME_CHECK_INTERVAL;
+        long player = board.getDisks(color);
+        long opponent = board.getDisks(color.opposite());
+        int empties = Long.bitCount(~(player | opponent));
+        long moves = Board.generateMoves(player, opponent);
+        if (moves == 0) {
+            return new SearchResult(Board.PASS, 0, empties, 0, 0);
+        }
+        int alpha = winLossDraw ? -1 : -SCORE_BOUND;
+        int beta = winLossDraw ? 1 : SCORE_BOUND;
+        int count = sortMoves(player, opponent, moves, 0, true);
+        int bestMove = moveLists[0][0];
+        int best = -SCORE_BOUND;
+        for (int index = 0; index < count; index++) {
+            int move = moveLists[0][index];
+            long flips = Board.computeFlips(player, opponent, move);
+            long nextPlayer = opponent & ~flips;
+            long nextOpponent = player | flips | (1L << move);
+            int score;
+            if (index == 0) {
+                score = -solve(nextPlayer, nextOpponent, -beta, -alpha, empties - 1, 1, false);
+            } else {
+                score = -solve(nextPlayer, nextOpponent, -alpha - 1, -alpha, empties - 1, 1, false);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -solve(nextPlayer, nextOpponent, -beta, -alpha, empties - 1, 1, false);
+                }
+            }
+            if (stopped) {
+                return null;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score >= beta) {
+                    break;
+                }
+                alpha = Math.max(alpha, score);
+            }
+        }
+        // With the window (-1; 1) the fail-soft score is only a bound of the difference, but its sign is exact.
+        int score = winLossDraw ? Integer.signum(best) : best;
+        return new SearchResult(bestMove, score, empties, nodes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+
+    /**
+     * Solving a position with five or more empty cells (fail-soft negamax with alpha-beta pruning and
+     * principal variation search).
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param alpha    The lower bound of the interesting scores.
+     * @param beta     The upper bound of the interesting scores.
+     * @param empties  The number of empty cells.
+     * @param ply      The distance from the root.
+     * @param passed   Whether the opponent has just passed.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private int solve(long player, long opponent, int alpha, int beta, int empties, int ply, boolean passed) {
+        if (empties <= 4) {
+            return solveLast(player, opponent, alpha, beta, empties);
+        }
+        nodes++;
+        // The nodes are counted by the solves of the last empty cells as well, so the count is compared with
+        // the next checkpoint instead of checking its low bits.
+        if (nodes >= nextCheck) {
+            nextCheck = nodes + TIME_CHECK_INTERVAL;
+            if (System.nanoTime() > deadline || (stopCondition != null && stopCondition.getAsBoolean())) {
+                stopped = true;
+            }
+        }
+        if (stopped) {
+            return 0;
+        }
+        long moves = Board.generateMoves(player, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return finalScore(player, opponent);
+            }
+            return -solve(opponent, player, -beta, -alpha, empties, ply + 1, true);
+        }
+        long key = 0;
+        int hashMove = Board.PASS;
+        if (empties > TABLE_EMPTIES) {
+            key = hash(player, opponent);
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISSING) {
+                int score = TranspositionTable.scoreOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta) ||
+                        (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+                if (bound == TranspositionTable.LOWER) {
+                    alpha = Math.max(alpha, score);
+                } else if (bound == TranspositionTable.UPPER) {
+                    beta = Math.min(beta, score);
+                }
+                hashMove = TranspositionTable.moveOf(entry);
+            }
+        }
+        int originalAlpha = alpha;
+        int count = sortMoves(player, opponent, moves, ply, empties > FASTEST_FIRST_EMPTIES);
+        int[] list = moveLists[ply];
+        if (hashMove != Board.PASS) {
+            moveToFront(list, count, hashMove);
+        }
+        int best = -SCORE_BOUND;
+        int bestMove = list[0];
+        for (int index = 0; index < count; index++) {
+            int move = list[index];
+            long flips = Board.computeFlips(player, opponent, move);
+            long nextPlayer = opponent & ~flips;
+            long nextOpponent = player | flips | (1L << move);
+            int score;
+            if (index == 0) {
+                score = -solve(nextPlayer, nextOpponent, -beta, -alpha, empties - 1, ply + 1, false);
+            } else {
+                score = -solve(nextPlayer, nextOpponent, -alpha - 1, -alpha, empties - 1, ply + 1, false);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -solve(nextPlayer, nextOpponent, -beta, -alpha, empties - 1, ply + 1, false);
+                }
+            }
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score >= beta) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+            }
+        }
+        if (empties > TABLE_EMPTIES) {
+            int bound = best >= beta ? TranspositionTable.LOWER :
+                    best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(key, empties, bound, bestMove, best);
+        }
+        return best;
+    }
+
+
+    /**
+     * Solving a position with at most four empty cells: the empty cells are extracted and ordered by parity,
+     * then the unrolled solvers are used.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param alpha    The lower bound of the interesting scores.
+     * @param beta     The upper bound of the interesting scores.
+     * @param empties  The number of empty cells.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private int solveLast(long player, long opponent, int alpha, int beta, int empties) {
+        long empty = ~(player | opponent);
+        switch (empties) {
+            case 0:
+                return finalScore(player, opponent);
+            case 1:
+                nodes++;
+                return solve1(player, opponent, Long.numberOfTrailingZeros(empty));
+            case 2: {
+                int x1 = Long.numberOfTrailingZeros(empty);
+                int x2 = 63 - Long.numberOfLeadingZeros(empty);
+                return solve2(player, opponent, alpha, beta, x1, x2, false);
+            }
+            case 3: {
+                int x1 = Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+                int x2 = Long.numberOfTrailingZeros(empty);
+                int x3 = 63 - Long.numberOfLeadingZeros(empty);
+                // The cell alone in its quadrant (odd parity) is tried first.
+                if (QUADRANT_OF[x1] == QUADRANT_OF[x2]) {
+                    return solve3(player, opponent, alpha, beta, x3, x1, x2, false);
+                } else if (QUADRANT_OF[x1] == QUADRANT_OF[x3]) {
+                    return solve3(player, opponent, alpha, beta, x2, x1, x3, false);
+                }
+                return solve3(player, opponent, alpha, beta, x1, x2, x3, false);
+            }
+            default: {
+                int x1 = Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+                int x2 = Long.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+                int x3 = Long.numberOfTrailingZeros(empty);
+                int x4 = 63 - Long.numberOfLeadingZeros(empty);
+                // With two cells in one quadrant and two in others, the lonely (odd) cells are tried first.
+                int q1 = QUADRANT_OF[x1];
+                int q2 = QUADRANT_OF[x2];
+                int q3 = QUADRANT_OF[x3];
+                int q4 = QUADRANT_OF[x4];
+                if (q1 == q2 && q3 != q4) {
+                    return solve4(player, opponent, alpha, beta, x3, x4, x1, x2);
+                } else if (q1 == q3 && q2 != q4) {
+                    return solve4(player, opponent, alpha, beta, x2, x4, x1, x3);
+                } else if (q2 == q3 && q1 != q4) {
+                    return solve4(player, opponent, alpha, beta, x1, x4, x2, x3);
+                } else if (q3 == q4 && q1 != q2) {
+                    return solve4(player, opponent, alpha, beta, x1, x2, x3, x4);
+                }
+                return solve4(player, opponent, alpha, beta, x1, x2, x3, x4);
+            }
+        }
+    }
+
+
+    /**
+     * Solving a position with four empty cells.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param alpha    The lower bound of the interesting scores.
+     * @param beta     The upper bound of the interesting scores.
+     * @param x1       The first empty cell to try.
+     * @param x2       The second empty cell to try.
+     * @param x3       The third empty cell to try.
+     * @param x4       The fourth empty cell to try.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private int solve4(long player, long opponent, int alpha, int beta, int x1, int x2, int x3, int x4) {
+        int best = solve4Moves(player, opponent, alpha, beta, x1, x2, x3, x4);
+        if (best != -SCORE_BOUND) {
+            return best;
+        }
+        best = solve4Moves(opponent, player, -beta, -alpha, x1, x2, x3, x4);
+        if (best != -SCORE_BOUND) {
+            return -best;
+        }
+        return finalScore(player, opponent);
+    }
+
+
+    /**
+     * Trying the moves of the player to move in a position with four empty cells.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param alpha    The lower bound of the interesting scores.
+     * @param beta     The upper bound of the interesting scores.
+     * @param x1       The first empty cell to try.
+     * @param x2       The second empty cell to try.
+     * @param x3       The third empty cell to try.
+     * @param x4       The fourth empty cell to try.
+     * @return The best score, or -{@link #SCORE_BOUND} if the player cannot move.
+     */
+    private int solve4Moves(long player, long opponent, int alpha, int beta, int x1, int x2, int x3, int x4) {
+        nodes++;
+        int best = -SCORE_BOUND;
+        long flips = Board.computeFlips(player, opponent, x1);
+        if (flips != 0) {
+            best = -solve3(opponent & ~flips, player | flips | (1L << x1), -beta, -alpha, x2, x3, x4, false);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+        flips = Board.computeFlips(player, opponent, x2);
+        if (flips != 0) {
+            int score = -solve3(opponent & ~flips, player | flips | (1L << x2), -beta, -alpha, x1, x3, x4, false);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > best) {
+                best = score;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        flips = Board.computeFlips(player, opponent, x3);
+        if (flips != 0) {
+            int score = -solve3(opponent & ~flips, player | flips | (1L << x3), -beta, -alpha, x1, x2, x4, false);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > best) {
+                best = score;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        flips = Board.computeFlips(player, opponent, x4);
+        if (flips != 0) {
+            int score = -solve3(opponent & ~flips, player | flips | (1L << x4), -beta, -alpha, x1, x2, x3, false);
+            if (score > best) {
+                best = score;
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * Solving a position with three empty cells.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param alpha    The lower bound of the interesting scores.
+     * @param beta     The upper bound of the interesting scores.
+     * @param x1       The first empty cell to try.
+     * @param x2       The second empty cell to try.
+     * @param x3       The third empty cell to try.
+     * @param passed   Whether the opponent has just passed.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private int solve3(long player, long opponent, int alpha, int beta, int x1, int x2, int x3, boolean passed) {
+        nodes++;
+        int best = -SCORE_BOUND;
+        long flips = Board.computeFlips(player, opponent, x1);
+        if (flips != 0) {
+            best = -solve2(opponent & ~flips, player | flips | (1L << x1), -beta, -alpha, x2, x3, false);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+        flips = Board.computeFlips(player, opponent, x2);
+        if (flips != 0) {
+            int score = -solve2(opponent & ~flips, player | flips | (1L << x2), -beta, -alpha, x1, x3, false);
+            if (score >= beta) {
+                return score;
+            }
+            if (score > best) {
+                best = score;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        flips = Board.computeFlips(player, opponent, x3);
+        if (flips != 0) {
+            int score = -solve2(opponent & ~flips, player | flips | (1L << x3), -beta, -alpha, x1, x2, false);
+            if (score > best) {
+                best = score;
+            }
+        }
+        if (best == -SCORE_BOUND) {
+            if (passed) {
+                return finalScore(player, opponent);
+            }
+            return -solve3(opponent, player, -beta, -alpha, x1, x2, x3, true);
+        }
+        return best;
+    }
+
+
+    /**
+     * Solving a position with two empty cells.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param alpha    The lower bound of the interesting scores.
+     * @param beta     The upper bound of the interesting scores.
+     * @param x1       The first empty cell to try.
+     * @param x2       The second empty cell to try.
+     * @param passed   Whether the opponent has just passed.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private int solve2(long player, long opponent, int alpha, int beta, int x1, int x2, boolean passed) {
+        nodes++;
+        int best = -SCORE_BOUND;
+        long flips = Board.computeFlips(player, opponent, x1);
+        if (flips != 0) {
+            best = -solve1(opponent & ~flips, player | flips | (1L << x1), x2);
+            if (best >= beta) {
+                return best;
+            }
+        }
+        flips = Board.computeFlips(player, opponent, x2);
+        if (flips != 0) {
+            int score = -solve1(opponent & ~flips, player | flips | (1L << x2), x1);
+            if (score > best) {
+                best = score;
+            }
+        }
+        if (best == -SCORE_BOUND) {
+            if (passed) {
+                return finalScore(player, opponent);
+            }
+            return -solve2(opponent, player, -beta, -alpha, x1, x2, true);
+        }
+        return best;
+    }
+
+
+    /**
+     * Solving a position with one empty cell.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param x        The empty cell.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private static int solve1(long player, long opponent, int x) {
+        int score = 2 * Long.bitCount(player) - 63;
+        long flips = Board.computeFlips(player, opponent, x);
+        if (flips != 0) {
+            return score + 2 * Long.bitCount(flips) + 1;
+        }
+        flips = Board.computeFlips(opponent, player, x);
+        if (flips != 0) {
+            return score - 2 * Long.bitCount(flips) - 1;
+        }
+        return score;
+    }
+
+
+    /**
+     * Sorting the moves of a position into the move list of the ply: fastest-first (by the number of the
+     * replies of the opponent) or by parity (the moves in the quadrants with an odd number of empty cells first).
+     *
+     * @param player       The disks of the player to move.
+     * @param opponent     The disks of the opponent.
+     * @param moves        The mask of the possible moves.
+     * @param ply          The distance from the root.
+     * @param fastestFirst True for the fastest-first order; false for the parity order.
+     * @return The number of moves.
+     */
+    private int sortMoves(long player, long opponent, long moves, int ply, boolean fastestFirst) {
+        int[] list = moveLists[ply];
+        int[] keys = moveKeys[ply];
+        long empty = ~(player | opponent);
+        int count = 0;
+        while (moves != 0) {
+            int move = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            int key;
+            if (fastestFirst) {
+                long flips = Board.computeFlips(player, opponent, move);
+                long nextOpponent = player | flips | (1L << move);
+                long replies = Board.generateMoves(opponent & ~flips, nextOpponent);
+                // The corners count twice, so giving the opponent a corner is tried late.
+                key = Long.bitCount(replies) + Long.bitCount(replies & 0x8100000000000081L);
+            } else {
+                key = (Long.bitCount(empty & QUADRANTS[QUADRANT_OF[move]]) & 1) == 1 ? 0 : 1;
+            }
+            int index = count++;
+            while (index > 0 && keys[index - 1] > key) {
+                list[index] = list[index - 1];
+                keys[index] = keys[index - 1];
+                index--;
+            }
+            list[index] = move;
+            keys[index] = key;
+        }
+        return count;
+    }
+
+
+    /**
+     * Moving the given move to the front of the list, if it is in the list.
+     *
+     * @param list  The list of the moves.
+     * @param count The number of moves in the list.
+     * @param move  The move.
+     */
+    private static void moveToFront(int[] list, int count, int move) {
+        for (int index = 0; index < count; index++) {
+            if (list[index] == move) {
+                System.arraycopy(list, 0, list, 1, index);
+                list[0] = move;
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * Scoring a position, where none of the players can move.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @return The difference of the disks from the point of view of the player to move.
+     */
+    private static int finalScore(long player, long opponent) {
+        return Long.bitCount(player) - Long.bitCount(opponent);
+    }
+
+
+    /**
+     * Hashing a raw position for the transposition table.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @return The hash of the position.
+     */
+    private static long hash(long player, long opponent) {
+        long hash = player * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opponent * 0xC2B2AE3D27D4EB4FL, 31);
+        return hash ^ (hash >>> 29);
+    }
+
+
+    /**
+     * Set the condition, which stops the solves from outside (checked together with the time budget).
+     *
+     * @param stopCondition The condition (null for none).
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+
+    /**
+     * Get the number of positions visited by the last solve.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
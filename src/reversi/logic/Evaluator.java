@@ -0,0 +1,51 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+
+/**
+ * Interface of the heuristic evaluation functions of the robot.
+ * An evaluator may keep its own state about the position, which is updated incrementally: the search sets
+ * the position once with {@link #setPosition(Board)} and then reports every move it makes and takes back.
+ * Such an evaluator is not thread-safe: each search engine needs its own evaluator.
+ */
+public interface Evaluator {
+
+    /**
+     * Evaluating a position heuristically.
+     *
+     * @param board The analysed board (the position last reported to the evaluator).
+     * @param color The color of the player to move.
+     * @return The score from the point of view of the player to move.
+     */
+    int evaluate(Board board, Color color);
+
+
+    /**
+     * Setting the position, from which the following moves are reported.
+     *
+     * @param board The board.
+     */
+    default void setPosition(Board board) {
+    }
+
+
+    /**
+     * Updating the state of the evaluator after a move was made on the board.
+     *
+     * @param undo The record of the move, filled by {@link Board#makeMove}.
+     */
+    default void makeMove(UndoRecord undo) {
+    }
+
+
+    /**
+     * Updating the state of the evaluator after a move was taken back.
+     *
+     * @param undo The record of the move.
+     */
+    default void unmakeMove(UndoRecord undo) {
+    }
+}
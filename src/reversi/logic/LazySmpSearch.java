@@ -0,0 +1,154 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+
+/**
+ * Class of the Lazy SMP parallel search of the robot: all the threads run the iterative deepening of the same
+ * position, each with its own {@link SearchEngine}, and share one lock-free {@link TranspositionTable}.
+ * The helper threads search with varied depths and root move orders, so they fill the table with the parts of
+ * the tree, which the main thread needs next. The main thread (the calling one) gives the result; the helpers
+ * are stopped as soon as it finishes.
+ */
+public class LazySmpSearch implements Searcher {
+
+    /**
+     * The engine of the main thread.
+     */
+    private final SearchEngine mainEngine;
+
+    /**
+     * The engines of the helper threads.
+     */
+    private final SearchEngine[] helpers;
+
+    /**
+     * The pool of the helper threads.
+     */
+    private final ExecutorService pool;
+
+    /**
+     * Whether the helpers have to stop the current search.
+     */
+    private volatile boolean helpersStopped;
+
+    /**
+     * Constructor of the search.
+     *
+     * @param threads     The number of threads (the calling thread and the helpers).
+     * @param tableSizeMb The size of the shared transposition table (in megabytes).
+     */
+    public LazySmpSearch(int threads, int tableSizeMb) {
+        TranspositionTable table = new TranspositionTable(tableSizeMb);
+        mainEngine = new SearchEngine(table);
+        helpers = new SearchEngine[Math.max(0, threads - 1)];
+        for (int index = 0; index < helpers.length; index++) {
+            helpers[index] = new SearchEngine(table);
+            helpers[index].setHelperIndex(index + 1);
+            helpers[index].setStopCondition(() -> helpersStopped);
+        }
+        pool = helpers.length > 0 ? Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+
+    /**
+     * Searching the best move with all the threads. The given board is not changed.
+     *
+     * @param board            The analysed board.
+     * @param color            The color of the player to move.
+     * @param maxDepth         The maximal depth of the search in plies (at least 1).
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     * @return The result of the main thread, with the nodes of all the threads.
+     */
+    @Override
+    public SearchResult search(Board board, Color color, int maxDepth, long timeBudgetMillis) {
+        helpersStopped = false;
+        List<Future<SearchResult>> helperResults = new ArrayList<>(helpers.length);
+        for (SearchEngine helper : helpers) {
+            helperResults.add(pool.submit(() -> helper.search(board, color, maxDepth, timeBudgetMillis)));
+        }
+        SearchResult result = mainEngine.search(board, color, maxDepth, timeBudgetMillis);
+        helpersStopped = true;
+        long nodes = result.getNodes();
+        for (Future<SearchResult> helperResult : helperResults) {
+            try {
+                nodes += helperResult.get().getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A helper of the search failed.", e.getCause());
+            }
+        }
+        return new SearchResult(result.getMove(), result.getScore(), result.getDepth(), nodes,
+                result.getTimeMillis());
+    }
+
+
+    /**
+     * Set the condition, which stops the searches from outside; it is checked by the main thread, which then
+     * stops the helpers.
+     *
+     * @param stopCondition The condition (null for none).
+     */
+    @Override
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        mainEngine.setStopCondition(stopCondition);
+    }
+
+
+    /**
+     * Set the listener, which gets the result of every finished iteration of the main thread.
+     *
+     * @param progressListener The listener (null for none).
+     */
+    @Override
+    public void setProgressListener(Consumer<SearchResult> progressListener) {
+        mainEngine.setProgressListener(progressListener);
+    }
+
+
+    /**
+     * Get the shared transposition table.
+     *
+     * @return The transposition table.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return mainEngine.getTranspositionTable();
+    }
+
+
+    /**
+     * Get the number of threads of the search.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return helpers.length + 1;
+    }
+
+
+    /**
+     * Stopping the helper threads.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            helpersStopped = true;
+            pool.shutdownNow();
+        }
+    }
+}
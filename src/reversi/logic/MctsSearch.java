@@ -0,0 +1,846 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Class of the Monte Carlo tree search: instead of evaluating the positions, the search plays random games
+ * (playouts) to the end and keeps the results in a tree. Every playout walks down the tree choosing the children
+ * by UCT (the average result plus a bonus for the rarely visited children), expands the reached leaf, plays a
+ * random game from it and adds the result to all the nodes of the path.
+ * An optional evaluator gives the prior of the new children: the children are ranked by the evaluator, and the
+ * rank is counted as a few virtual visits with a better or worse result, so the good moves are tried first.
+ * The threads share one tree (tree parallelization): a child chosen by a thread counts as a lost visit (virtual
+ * loss) until its playout ends, so the other threads go elsewhere. The nodes are kept in preallocated arrays,
+ * and the playouts work on the bitboards, so the search does not allocate objects.
+ * The part of the tree under the next position is kept between the searches, so the playouts of the previous
+ * move are not lost.
+ * The score of the result is the expected result of the best move in per mille (-1000 for a sure loss, 1000 for
+ * a sure win); its nodes are the number of playouts, so its nodes per second are the playouts per second.
+ */
+public class MctsSearch implements Searcher {
+
+    /**
+     * The default number of nodes of the tree.
+     */
+    public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+    /**
+     * The number of playouts of a search without a time budget and a playout budget.
+     */
+    public static final long DEFAULT_PLAYOUTS = 100_000;
+
+    /**
+     * The weight of the exploration in UCT.
+     */
+    private static final double EXPLORATION = 1.0;
+
+    /**
+     * The number of virtual visits of the prior of a child.
+     */
+    private static final int PRIOR_VISITS = 4;
+
+    /**
+     * The result of the prior of the worst child (in points per visit).
+     */
+    private static final double PRIOR_LOW = 0.3;
+
+    /**
+     * The result of the prior of the best child (in points per visit).
+     */
+    private static final double PRIOR_HIGH = 0.7;
+
+    /**
+     * The number of visits of a leaf, after which it is expanded.
+     */
+    private static final int EXPANSION_VISITS = 2;
+
+    /**
+     * The number of playouts of a thread between the checks of the budget.
+     */
+    private static final int CHECK_INTERVAL = 64;
+
+    /**
+     * The time between two reports of the progress (in nanoseconds).
+     */
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000;
+
+    /**
+     * The number of plies between two positions searched one after another, up to which the tree is reused.
+     */
+    private static final int MAX_REUSE_PLIES = 4;
+
+    /**
+     * The longest path in the tree (the moves and the passes).
+     */
+    private static final int MAX_PLY = 128;
+
+    /**
+     * The state of a node, which has no children yet.
+     */
+    private static final int UNEXPANDED = 0;
+
+    /**
+     * The state of a node, whose children are being created.
+     */
+    private static final int EXPANDING = 1;
+
+    /**
+     * The state of a node with its children (none if the game is over).
+     */
+    private static final int EXPANDED = 2;
+
+    /**
+     * The number of threads of the search.
+     */
+    private final int threads;
+
+    /**
+     * The pool of the helper threads (null for one thread).
+     */
+    private final ExecutorService pool;
+
+    /**
+     * The workers, one per thread.
+     */
+    private final Worker[] workers;
+
+    /**
+     * The tree of the current search.
+     */
+    private Tree tree;
+
+    /**
+     * The tree, into which the reused part of the tree is copied (null until the first reuse).
+     */
+    private Tree spare;
+
+    /**
+     * The number of nodes of a tree.
+     */
+    private final int maxNodes;
+
+    /**
+     * The largest number of playouts of a search (0 for no limit besides the time budget).
+     */
+    private long playoutBudget;
+
+    /**
+     * The disks of the player to move at the root of the tree.
+     */
+    private long rootPlayer;
+
+    /**
+     * The disks of the opponent at the root of the tree.
+     */
+    private long rootOpponent;
+
+    /**
+     * The color of the player to move at the root of the tree (null if there is no tree).
+     */
+    private Color rootColor;
+
+    /**
+     * The number of playouts of the root, which were kept from the previous search.
+     */
+    private long reusedPlayouts;
+
+    /**
+     * The number of playouts of the current search.
+     */
+    private final AtomicLong playouts = new AtomicLong();
+
+    /**
+     * Whether the current search has to stop.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The moment (System.nanoTime) when the current search has to stop.
+     */
+    private long deadline;
+
+    /**
+     * The largest number of playouts of the current search.
+     */
+    private long budget;
+
+    /**
+     * The condition, which stops the search from outside (checked together with the time budget), or null.
+     */
+    private BooleanSupplier stopCondition;
+
+    /**
+     * The listener of the progress of the search, or null.
+     */
+    private Consumer<SearchResult> progressListener;
+
+    public MctsSearch() {
+        this(1, DEFAULT_MAX_NODES, PatternEvaluator::new);
+    }
+
+    /**
+     * Constructor of the search.
+     *
+     * @param threads    The number of threads (the calling thread and the helpers).
+     * @param maxNodes   The number of nodes of the tree.
+     * @param evaluators The creator of the evaluators of the priors (one per thread), or null for no prior.
+     */
+    public MctsSearch(int threads, int maxNodes, Supplier<Evaluator> evaluators) {
+        this.threads = Math.max(1, threads);
+        this.maxNodes = Math.max(MAX_PLY, maxNodes);
+        tree = new Tree(this.maxNodes);
+        workers = new Worker[this.threads];
+        for (int index = 0; index < workers.length; index++) {
+            Evaluator evaluator = evaluators == null ? null : evaluators.get();
+            workers[index] = new Worker(evaluator, 0x9E3779B97F4A7C15L * (index + 1));
+        }
+        pool = this.threads > 1 ? Executors.newFixedThreadPool(this.threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+
+    /**
+     * Searching the best move by the playouts: the search stops when the playout budget is used, when the time
+     * budget runs out or by the stop condition; without both budgets {@link #DEFAULT_PLAYOUTS} are played.
+     * The given board is not changed.
+     *
+     * @param board            The analysed board.
+     * @param color            The color of the player to move.
+     * @param maxDepth         Not used (the playouts go to the end of the game).
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     * @return The most visited move of the root.
+     */
+    @Override
+    public SearchResult search(Board board, Color color, int maxDepth, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        long player = board.getDisks(color);
+        long opponent = board.getDisks(color.opposite());
+        long moves = Board.generateMoves(player, opponent);
+        if (moves == 0) {
+            return new SearchResult(Board.PASS, 0, 0, 0, 0);
+        }
+        setRoot(player, opponent, color);
+        if (Long.bitCount(moves) == 1) {
+            return new SearchResult(Long.numberOfTrailingZeros(moves), 0, 1, 0, 0);
+        }
+        deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+        budget = playoutBudget > 0 ? playoutBudget : timeBudgetMillis > 0 ? Long.MAX_VALUE : DEFAULT_PLAYOUTS;
+        playouts.set(0);
+        stopped = false;
+        List<Future<?>> helpers = new ArrayList<>(threads - 1);
+        for (int index = 1; index < threads; index++) {
+            Worker worker = workers[index];
+            helpers.add(pool.submit(() -> worker.run(false, start)));
+        }
+        try {
+            workers[0].run(true, start);
+        } finally {
+            stopped = true;
+        }
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A helper of the search failed.", e.getCause());
+            }
+        }
+        return result(start);
+    }
+
+
+    /**
+     * Method for setting the root of the tree: the node of the position is looked for in the tree of the previous
+     * search (a few plies deep), and its subtree is kept; otherwise the tree is cleared.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param color    The color of the player to move.
+     */
+    private void setRoot(long player, long opponent, Color color) {
+        int node = rootColor == null ? -1 : findNode(0, rootPlayer, rootOpponent, rootColor, player, opponent, color,
+                MAX_REUSE_PLIES);
+        if (node > 0) {
+            if (spare == null) {
+                spare = new Tree(maxNodes);
+            }
+            spare.copySubtree(tree, node);
+            Tree swap = tree;
+            tree = spare;
+            spare = swap;
+        } else if (node < 0) {
+            tree.clear();
+        }
+        reusedPlayouts = tree.visits.get(0);
+        rootPlayer = player;
+        rootOpponent = opponent;
+        rootColor = color;
+    }
+
+
+    /**
+     * Looking for the node of a position under the given node.
+     *
+     * @param node           The node.
+     * @param player         The disks of the player to move at the node.
+     * @param opponent       The disks of the opponent at the node.
+     * @param color          The color of the player to move at the node.
+     * @param targetPlayer   The disks of the player to move in the looked for position.
+     * @param targetOpponent The disks of the opponent in the looked for position.
+     * @param targetColor    The color of the player to move in the looked for position.
+     * @param plies          The number of plies, up to which the tree is looked through.
+     * @return The found node, or -1 if the position is not in the tree.
+     */
+    private int findNode(int node, long player, long opponent, Color color, long targetPlayer, long targetOpponent,
+                         Color targetColor, int plies) {
+        if (player == targetPlayer && opponent == targetOpponent && color == targetColor) {
+            return node;
+        }
+        if (plies == 0 || tree.state.get(node) != EXPANDED) {
+            return -1;
+        }
+        int first = tree.firstChild[node];
+        for (int child = first; child < first + tree.childCount[node]; child++) {
+            int move = tree.move[child];
+            long flips = move == Board.PASS ? 0 : Board.computeFlips(player, opponent, move);
+            long nextPlayer = move == Board.PASS ? player : player | flips | 1L << move;
+            int found = findNode(child, opponent & ~flips, nextPlayer, color.opposite(), targetPlayer,
+                    targetOpponent, targetColor, plies - 1);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Creating the result of the search: the most visited child of the root.
+     *
+     * @param start The moment (System.nanoTime) of the start of the search.
+     * @return The result.
+     */
+    private SearchResult result(long start) {
+        int best = bestChild(0);
+        int visits = Math.max(1, tree.visits.get(best));
+        int score = (int) Math.round((tree.results.get(best) / (double) visits - 1) * 1000);
+        int depth = 0;
+        for (int node = 0; node >= 0 && depth < MAX_PLY; node = bestChild(node)) {
+            depth++;
+        }
+        return new SearchResult(tree.move[best], score, depth - 1, playouts.get(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+
+    /**
+     * Get the most visited child of a node.
+     *
+     * @param node The node.
+     * @return The child, or -1 if the node has no children.
+     */
+    private int bestChild(int node) {
+        if (tree.state.get(node) != EXPANDED || tree.childCount[node] == 0) {
+            return -1;
+        }
+        int first = tree.firstChild[node];
+        int best = first;
+        for (int child = first + 1; child < first + tree.childCount[node]; child++) {
+            if (tree.visits.get(child) > tree.visits.get(best)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * Get the largest number of playouts of a search.
+     *
+     * @return The number of playouts (0 for no limit besides the time budget).
+     */
+    public long getPlayoutBudget() {
+        return playoutBudget;
+    }
+
+
+    /**
+     * Set the largest number of playouts of a search.
+     *
+     * @param playoutBudget The number of playouts (0 for no limit besides the time budget).
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        this.playoutBudget = Math.max(0, playoutBudget);
+    }
+
+
+    /**
+     * Get the number of playouts of the root, which were kept from the previous search by the last search.
+     *
+     * @return The number of playouts.
+     */
+    public long getReusedPlayouts() {
+        return reusedPlayouts;
+    }
+
+
+    /**
+     * Get the number of threads of the search.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+
+    /**
+     * Set the condition, which stops the searches from outside (checked by the calling thread).
+     *
+     * @param stopCondition The condition (null for none).
+     */
+    @Override
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+
+    /**
+     * Set the listener, which gets the most visited move about every 100 milliseconds of the search.
+     *
+     * @param progressListener The listener (null for none).
+     */
+    @Override
+    public void setProgressListener(Consumer<SearchResult> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+
+    /**
+     * Stopping the helper threads.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            stopped = true;
+            pool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Class of a thread of the search: it walks the tree, expands the leaves, plays the playouts and updates the
+     * results. Each thread has its own evaluator, random numbers and path.
+     */
+    private class Worker {
+
+        /**
+         * The evaluator of the priors (null for no prior).
+         */
+        private final Evaluator evaluator;
+
+        /**
+         * The board, on which the children are evaluated.
+         */
+        private final Board scratch = new Board();
+
+        /**
+         * The nodes of the current path.
+         */
+        private final int[] path = new int[MAX_PLY + 1];
+
+        /**
+         * The scores of the children of an expanded node.
+         */
+        private final int[] scores = new int[64];
+
+        /**
+         * The state of the generator of the random numbers (xorshift).
+         */
+        private long seed;
+
+        Worker(Evaluator evaluator, long seed) {
+            this.evaluator = evaluator;
+            this.seed = seed;
+        }
+
+
+        /**
+         * Playing the playouts until the search stops.
+         *
+         * @param main  Whether this is the calling thread, which checks the stop condition and reports the
+         *              progress.
+         * @param start The moment (System.nanoTime) of the start of the search.
+         */
+        void run(boolean main, long start) {
+            long lastReport = start;
+            while (!stopped) {
+                for (int index = 0; index < CHECK_INTERVAL; index++) {
+                    playout();
+                }
+                long now = System.nanoTime();
+                if (playouts.addAndGet(CHECK_INTERVAL) >= budget || now > deadline) {
+                    stopped = true;
+                } else if (main && stopCondition != null && stopCondition.getAsBoolean()) {
+                    stopped = true;
+                } else if (main && progressListener != null && now - lastReport > PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    progressListener.accept(result(start));
+                }
+            }
+        }
+
+
+        /**
+         * Playing one playout: selection, expansion, the random game and the update of the path.
+         */
+        private void playout() {
+            Tree tree = MctsSearch.this.tree;
+            int node = 0;
+            int length = 0;
+            long player = rootPlayer;
+            long opponent = rootOpponent;
+            Color color = rootColor;
+            path[length++] = node;
+            while (length <= MAX_PLY) {
+                int state = tree.state.get(node);
+                if (state == UNEXPANDED && (node == 0 || tree.visits.get(node) + 1 >= EXPANSION_VISITS) &&
+                        !tree.full && tree.state.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                    state = expand(tree, node, player, opponent, color) ? EXPANDED : UNEXPANDED;
+                }
+                if (state != EXPANDED || tree.childCount[node] == 0) {
+                    break;
+                }
+                node = select(tree, node);
+                tree.virtualLosses.incrementAndGet(node);
+                int move = tree.move[node];
+                long flips = move == Board.PASS ? 0 : Board.computeFlips(player, opponent, move);
+                long moved = move == Board.PASS ? player : player | flips | 1L << move;
+                player = opponent & ~flips;
+                opponent = moved;
+                color = color.opposite();
+                path[length++] = node;
+            }
+            int points = randomGame(player, opponent);
+            for (int index = length - 1; index >= 0; index--) {
+                int pathNode = path[index];
+                points = 2 - points;
+                tree.results.addAndGet(pathNode, points);
+                tree.visits.incrementAndGet(pathNode);
+                if (index > 0) {
+                    tree.virtualLosses.decrementAndGet(pathNode);
+                }
+            }
+        }
+
+
+        /**
+         * Choosing the child of a node by UCT: the average result (with the prior and the virtual losses) plus
+         * the bonus of the exploration.
+         *
+         * @param tree The tree.
+         * @param node The node.
+         * @return The child.
+         */
+        private int select(Tree tree, int node) {
+            int first = tree.firstChild[node];
+            int last = first + tree.childCount[node];
+            int priorVisits = evaluator == null ? 0 : PRIOR_VISITS;
+            double logVisits = Math.log(tree.visits.get(node) + tree.virtualLosses.get(node) + 1.0);
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < last; child++) {
+                double visits = tree.visits.get(child) + tree.virtualLosses.get(child) + priorVisits;
+                double value;
+                if (visits == 0) {
+                    value = Double.POSITIVE_INFINITY;
+                } else {
+                    double points = tree.results.get(child) / 2.0 + tree.prior[child] * priorVisits;
+                    value = points / visits + EXPLORATION * Math.sqrt(logVisits / visits);
+                }
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+
+        /**
+         * Creating the children of a node: the possible moves, a pass, or none at the end of the game.
+         *
+         * @param tree     The tree.
+         * @param node     The node (in the expanding state).
+         * @param player   The disks of the player to move at the node.
+         * @param opponent The disks of the opponent at the node.
+         * @param color    The color of the player to move at the node.
+         * @return True if the node was expanded; false if the tree is full.
+         */
+        private boolean expand(Tree tree, int node, long player, long opponent, Color color) {
+            long moves = Board.generateMoves(player, opponent);
+            int count = moves != 0 ? Long.bitCount(moves) : Board.generateMoves(opponent, player) != 0 ? 1 : 0;
+            int first = tree.size.getAndAdd(count);
+            if (first + count > tree.capacity) {
+                tree.full = true;
+                tree.state.set(node, UNEXPANDED);
+                return false;
+            }
+            if (moves == 0) {
+                tree.move[first] = Board.PASS;
+                tree.prior[first] = 0.5f;
+            }
+            int lowest = Integer.MAX_VALUE;
+            int highest = Integer.MIN_VALUE;
+            for (int index = 0; moves != 0; index++, moves &= moves - 1) {
+                int move = Long.numberOfTrailingZeros(moves);
+                tree.move[first + index] = (byte) move;
+                tree.prior[first + index] = 0.5f;
+                if (evaluator != null) {
+                    long flips = Board.computeFlips(player, opponent, move);
+                    long moved = player | flips | 1L << move;
+                    long rest = opponent & ~flips;
+                    scratch.setDisks(color == Color.BLACK ? moved : rest, color == Color.BLACK ? rest : moved);
+                    evaluator.setPosition(scratch);
+                    scores[index] = -evaluator.evaluate(scratch, color.opposite());
+                    lowest = Math.min(lowest, scores[index]);
+                    highest = Math.max(highest, scores[index]);
+                }
+            }
+            if (evaluator != null && highest > lowest) {
+                for (int index = 0; index < count; index++) {
+                    tree.prior[first + index] = (float) (PRIOR_LOW + (PRIOR_HIGH - PRIOR_LOW) *
+                            (scores[index] - lowest) / (highest - lowest));
+                }
+            }
+            tree.firstChild[node] = first;
+            tree.childCount[node] = (byte) count;
+            tree.state.set(node, EXPANDED);
+            return true;
+        }
+
+
+        /**
+         * Playing a random game to the end.
+         *
+         * @param player   The disks of the player to move.
+         * @param opponent The disks of the opponent.
+         * @return The points of the player to move: 2 for a win, 1 for a draw, 0 for a loss.
+         */
+        private int randomGame(long player, long opponent) {
+            boolean swapped = false;
+            boolean passed = false;
+            while (true) {
+                long moves = Board.generateMoves(player, opponent);
+                if (moves != 0) {
+                    passed = false;
+                    int choice = (int) (((nextRandom() >>> 32) * Long.bitCount(moves)) >>> 32);
+                    for (; choice > 0; choice--) {
+                        moves &= moves - 1;
+                    }
+                    int move = Long.numberOfTrailingZeros(moves);
+                    long flips = Board.computeFlips(player, opponent, move);
+                    player |= flips | 1L << move;
+                    opponent &= ~flips;
+                } else if (passed) {
+                    break;
+                } else {
+                    passed = true;
+                }
+                long swap = player;
+                player = opponent;
+                opponent = swap;
+                swapped = !swapped;
+            }
+            int difference = Long.bitCount(player) - Long.bitCount(opponent);
+            if (swapped) {
+                difference = -difference;
+            }
+            return difference > 0 ? 2 : difference == 0 ? 1 : 0;
+        }
+
+
+        /**
+         * Get the next random number (xorshift).
+         *
+         * @return The random number.
+         */
+        private long nextRandom() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return seed;
+        }
+    }
+
+
+    /**
+     * Class of the tree of the search, kept in arrays: the children of a node are stored one after another.
+     * The statistics of the nodes are updated by many threads at once, and a node becomes expanded only after
+     * its children are written, so the threads see either no children or all of them.
+     */
+    private static class Tree {
+
+        /**
+         * The number of nodes, which can be stored.
+         */
+        private final int capacity;
+
+        /**
+         * The index of the first child of every node.
+         */
+        private final int[] firstChild;
+
+        /**
+         * The number of children of every node.
+         */
+        private final byte[] childCount;
+
+        /**
+         * The move leading to every node (the index of the cell or {@link Board#PASS}).
+         */
+        private final byte[] move;
+
+        /**
+         * The result of the prior of every node (in points per visit for the player, who made the move).
+         */
+        private final float[] prior;
+
+        /**
+         * The state of every node: unexpanded, expanding or expanded.
+         */
+        private final AtomicIntegerArray state;
+
+        /**
+         * The number of playouts through every node.
+         */
+        private final AtomicIntegerArray visits;
+
+        /**
+         * The number of playouts through every node, which are not finished yet.
+         */
+        private final AtomicIntegerArray virtualLosses;
+
+        /**
+         * The sum of the results of the playouts through every node, for the player, who made the move
+         * (2 for a win, 1 for a draw).
+         */
+        private final AtomicLongArray results;
+
+        /**
+         * The number of used nodes.
+         */
+        private final AtomicInteger size = new AtomicInteger(1);
+
+        /**
+         * Whether the tree has no room for more children.
+         */
+        private volatile boolean full;
+
+        /**
+         * The nodes of the other tree, from which the nodes were copied (null until the first copy).
+         */
+        private int[] origin;
+
+        Tree(int capacity) {
+            this.capacity = capacity;
+            firstChild = new int[capacity];
+            childCount = new byte[capacity];
+            move = new byte[capacity];
+            prior = new float[capacity];
+            state = new AtomicIntegerArray(capacity);
+            visits = new AtomicIntegerArray(capacity);
+            virtualLosses = new AtomicIntegerArray(capacity);
+            results = new AtomicLongArray(capacity);
+        }
+
+
+        /**
+         * Method for removing all the nodes but an empty root.
+         */
+        void clear() {
+            int used = Math.min(size.get(), capacity);
+            for (int node = 0; node < used; node++) {
+                firstChild[node] = 0;
+                childCount[node] = 0;
+                move[node] = 0;
+                prior[node] = 0;
+                state.set(node, UNEXPANDED);
+                visits.set(node, 0);
+                virtualLosses.set(node, 0);
+                results.set(node, 0);
+            }
+            size.set(1);
+            full = false;
+        }
+
+
+        /**
+         * Method for replacing the nodes with a copy of the subtree of another tree (the root of the subtree
+         * becomes the root). The nodes are copied level by level, so the children stay next to each other.
+         *
+         * @param other The other tree.
+         * @param root  The root of the subtree in the other tree.
+         */
+        void copySubtree(Tree other, int root) {
+            clear();
+            if (origin == null) {
+                origin = new int[capacity];
+            }
+            origin[0] = root;
+            copyNode(other, root, 0);
+            int count = 1;
+            for (int node = 0; node < count; node++) {
+                int source = origin[node];
+                if (other.state.get(source) != EXPANDED) {
+                    continue;
+                }
+                int children = other.childCount[source];
+                firstChild[node] = count;
+                childCount[node] = (byte) children;
+                for (int index = 0; index < children; index++) {
+                    origin[count] = other.firstChild[source] + index;
+                    copyNode(other, origin[count], count);
+                    count++;
+                }
+                state.set(node, EXPANDED);
+            }
+            size.set(count);
+        }
+
+
+        /**
+         * Method for copying the statistics of a node of another tree (the children are not copied).
+         *
+         * @param other  The other tree.
+         * @param source The node of the other tree.
+         * @param target The node of this tree.
+         */
+        private void copyNode(Tree other, int source, int target) {
+            move[target] = other.move[source];
+            prior[target] = other.prior[source];
+            visits.set(target, other.visits.get(source));
+            results.set(target, other.results.get(source));
+        }
+    }
+}
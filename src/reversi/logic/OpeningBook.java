@@ -0,0 +1,199 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.Symmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SortedMap;
+
+
+/**
+ * Class of the opening book of the robot: the best moves of the positions of the first plies, found offline
+ * by deep searches.
+ * The book is a binary file: a header (the magic number, the version and the number of entries) followed by
+ * the entries sorted by the hash of the position. An entry takes 16 bytes: the hash (8 bytes), the move
+ * (2 bytes), the depth of the search (2 bytes) and the score (4 bytes).
+ * Since version 2 the positions are stored in their canonical form (see {@link Board#getCanonicalHash(Color)}),
+ * with the moves mapped by the same symmetry, so the symmetric positions share one entry. The books of
+ * version 1 (with the positions as they are) can still be read.
+ * The file is memory-mapped and binary-searched in place, so it is not loaded onto the heap. The lookups
+ * use only absolute reads of the read-only buffer, so one book can be used by many games at the same time.
+ */
+public class OpeningBook {
+
+    /**
+     * The magic number at the start of a book file ("RVBK").
+     */
+    private static final int MAGIC = 0x5256424B;
+
+    /**
+     * The version of the format of the book file.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The first version of the format with the canonical positions.
+     */
+    private static final int CANONICAL_VERSION = 2;
+
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * The size of an entry in bytes.
+     */
+    private static final int ENTRY_BYTES = 16;
+
+    /**
+     * The mapped content of the book file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The number of entries of the book.
+     */
+    private final int size;
+
+    /**
+     * Whether the positions of the book are in their canonical form.
+     */
+    private final boolean canonical;
+
+    /**
+     * Constructor of the book, which maps the given file.
+     *
+     * @param path The path of the book file.
+     * @throws IOException If the file cannot be read or is not a book.
+     */
+    public OpeningBook(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) < 1 ||
+                buffer.getInt(4) > VERSION) {
+            throw new IOException("Not an opening book: " + path);
+        }
+        canonical = buffer.getInt(4) >= CANONICAL_VERSION;
+        size = buffer.getInt(8);
+        if ((long) HEADER_BYTES + (long) size * ENTRY_BYTES > buffer.capacity()) {
+            throw new IOException("Truncated opening book: " + path);
+        }
+    }
+
+
+    /**
+     * Looking up the position in the book: the canonical form of the position is found, and the move of the
+     * book is mapped back to the position.
+     * The move of the book is checked to be possible, so a collision of the hashes cannot give a wrong move.
+     *
+     * @param board The board.
+     * @param color The color of the player to move.
+     * @return The move of the book with its score and depth, or null if the position is not in the book.
+     */
+    public SearchResult lookup(Board board, Color color) {
+        int symmetry = canonical ? board.getCanonicalSymmetry() : Symmetry.IDENTITY;
+        int index = find(board.getHash(color, symmetry));
+        if (index < 0) {
+            return null;
+        }
+        int offset = HEADER_BYTES + index * ENTRY_BYTES;
+        int move = buffer.getShort(offset + 8);
+        if (move < 0 || move >= 64) {
+            return null;
+        }
+        move = Symmetry.transformSquare(move, Symmetry.inverse(symmetry));
+        if ((board.getPossibleMovesMask(color) & (1L << move)) == 0) {
+            return null;
+        }
+        return new SearchResult(move, buffer.getInt(offset + 12), buffer.getShort(offset + 10), 0, 0);
+    }
+
+
+    /**
+     * Binary searching the entry of the position.
+     *
+     * @param key The hash of the position.
+     * @return The index of the entry, or -1 if the position is not in the book.
+     */
+    private int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = buffer.getLong(HEADER_BYTES + middle * ENTRY_BYTES);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Get the number of entries of the book.
+     *
+     * @return The number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Opening the book file, if it exists.
+     *
+     * @param path The path of the book file (null for none).
+     * @return The book, or null if there is no readable book file.
+     */
+    public static OpeningBook openIfExists(Path path) {
+        if (path == null || !Files.isReadable(path)) {
+            return null;
+        }
+        try {
+            return new OpeningBook(path);
+        } catch (IOException e) {
+            System.out.println("Couldn't read the opening book: " + e.getMessage());
+            return null;
+        }
+    }
+
+
+    /**
+     * Writing a book file.
+     *
+     * @param path    The path of the book file.
+     * @param entries The results of the searches by the canonical hashes of the positions (with the player to
+     *                move), with the moves mapped to the canonical positions.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, SortedMap<Long, SearchResult> entries) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(HEADER_BYTES + entries.size() * ENTRY_BYTES);
+        block.putInt(MAGIC).putInt(VERSION).putInt(entries.size());
+        for (Map.Entry<Long, SearchResult> entry : entries.entrySet()) {
+            SearchResult result = entry.getValue();
+            block.putLong(entry.getKey()).putShort((short) result.getMove()).putShort((short) result.getDepth())
+                    .putInt(result.getScore());
+        }
+        block.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+        }
+    }
+}
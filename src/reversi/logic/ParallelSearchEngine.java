@@ -0,0 +1,397 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+
+/**
+ * Class of the parallel search engine of the robot, which splits the game tree between the threads of a
+ * {@link ForkJoinPool} with the Young Brothers Wait method: the first move of a position is searched first
+ * (by the same thread), and only then the remaining moves are searched in parallel with the bound it gave.
+ * When one of the parallel moves causes a cutoff, the searches of its brothers are aborted.
+ * The positions close to the leaves are searched by a serial {@link SearchEngine} of each thread.
+ * All the threads share one transposition table.
+ */
+public class ParallelSearchEngine implements Searcher {
+
+    /**
+     * The lowest remaining depth, at which the moves of a position are split between the threads.
+     */
+    static final int MIN_SPLIT_DEPTH = 5;
+
+    /**
+     * The pool of the threads of the search.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of threads of the search.
+     */
+    private final int threads;
+
+    /**
+     * The serial engines, one per thread of the pool.
+     */
+    private final ThreadLocal<SearchEngine> engines;
+
+    /**
+     * The number of positions visited by the current search.
+     */
+    private final LongAdder nodes;
+
+    /**
+     * The moment (System.nanoTime) when the current search has to stop.
+     */
+    private volatile long deadline;
+
+    /**
+     * The condition, which stops the search from outside (checked together with the time budget), or null.
+     */
+    private volatile BooleanSupplier stopCondition;
+
+    /**
+     * The listener of the finished iterations, or null.
+     */
+    private Consumer<SearchResult> progressListener;
+
+    /**
+     * Constructor of the engine.
+     *
+     * @param threads     The number of threads of the search.
+     * @param tableSizeMb The size of the shared transposition table (in megabytes).
+     */
+    public ParallelSearchEngine(int threads, int tableSizeMb) {
+        this.threads = Math.max(1, threads);
+        TranspositionTable table = new TranspositionTable(tableSizeMb);
+        pool = new ForkJoinPool(this.threads);
+        engines = ThreadLocal.withInitial(() -> new SearchEngine(table));
+        nodes = new LongAdder();
+    }
+
+
+    /**
+     * Searching the best move with iterative deepening, splitting each iteration between the threads.
+     * The given board is not changed.
+     *
+     * @param board            The analysed board.
+     * @param color            The color of the player to move.
+     * @param maxDepth         The maximal depth of the search in plies (at least 1).
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     * @return The result of the deepest completed iteration.
+     */
+    @Override
+    public SearchResult search(Board board, Color color, int maxDepth, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+        nodes.reset();
+        maxDepth = Math.max(1, maxDepth);
+        long moves = board.getPossibleMovesMask(color);
+        if (moves == 0) {
+            return new SearchResult(Board.PASS, 0, 0, 0, 0);
+        }
+        int empties = 64 - Long.bitCount(board.getDisks(Color.BLACK) | board.getDisks(Color.WHITE));
+        SearchResult result = new SearchResult(SearchEngine.orderMoves(moves, Board.PASS)[0], 0, 0, 0, 0);
+        int bestMove = Board.PASS;
+        long previousIterationTime = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long iterationStart = System.nanoTime();
+            NodeTask root = new NodeTask(new Board(board), color, depth, -SearchEngine.INFINITY,
+                    SearchEngine.INFINITY, null, bestMove);
+            int score = pool.invoke(root);
+            long now = System.nanoTime();
+            if (root.aborted) {
+                break;
+            }
+            bestMove = root.bestMove;
+            result = new SearchResult(bestMove, score, depth, nodes.sum(), (now - start) / 1_000_000);
+            if (progressListener != null) {
+                progressListener.accept(result);
+            }
+            if (depth >= empties) {
+                break;
+            }
+            long iterationTime = now - iterationStart;
+            if (previousIterationTime > 0 && now + iterationTime * Math.max(1.5,
+                    (double) iterationTime / previousIterationTime) > deadline) {
+                break;
+            }
+            previousIterationTime = Math.max(1, iterationTime);
+        }
+        return result;
+    }
+
+
+    /**
+     * Set the condition, which stops the searches from outside (checked together with the time budget).
+     *
+     * @param stopCondition The condition (null for none).
+     */
+    @Override
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+
+    /**
+     * Set the listener, which gets the result of every finished iteration of the searches.
+     *
+     * @param progressListener The listener (null for none).
+     */
+    @Override
+    public void setProgressListener(Consumer<SearchResult> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+
+    /**
+     * Get the number of threads of the search.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+
+    /**
+     * Stopping the threads of the engine.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+
+    /**
+     * Class of the search of one position, which can be split between the threads.
+     */
+    private class NodeTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The analysed board (owned by the task).
+         */
+        private final Board board;
+
+        /**
+         * The color of the player to move.
+         */
+        private final Color color;
+
+        /**
+         * The remaining depth.
+         */
+        private final int depth;
+
+        /**
+         * The lower bound of the interesting scores.
+         */
+        private int alpha;
+
+        /**
+         * The upper bound of the interesting scores.
+         */
+        private int beta;
+
+        /**
+         * Whether the task searches a younger brother: its null window is taken from the current lower bound
+         * of the parent when the task starts, so it profits from the brothers finished in the meantime.
+         */
+        private boolean brotherWindow;
+
+        /**
+         * The current lower bound of the scores of this position, read by the younger brothers' tasks.
+         */
+        private volatile int sharedAlpha;
+
+        /**
+         * The lower bound of the parent, from which the null window of a younger brother was taken (from the
+         * point of view of the parent); a score above it is only a lower bound of the move.
+         */
+        private int windowAlpha;
+
+        /**
+         * The task of the parent position (null for the root).
+         */
+        private final NodeTask parent;
+
+        /**
+         * The move to try first ({@link Board#PASS} to take it from the transposition table).
+         */
+        private final int hintMove;
+
+        /**
+         * Whether the search of this position (and so of all its subtrees) has to stop.
+         */
+        private volatile boolean aborted;
+
+        /**
+         * The best move found by the search of the position.
+         */
+        private int bestMove = Board.PASS;
+
+        NodeTask(Board board, Color color, int depth, int alpha, int beta, NodeTask parent, int hintMove) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.parent = parent;
+            this.hintMove = hintMove;
+        }
+
+
+        /**
+         * Checks whether this task or any of its ancestors was aborted, or the time budget ran out, or the search
+         * was stopped from outside.
+         *
+         * @return True if the search has to stop; false otherwise.
+         */
+        boolean isAborted() {
+            for (NodeTask task = this; task != null; task = task.parent) {
+                if (task.aborted) {
+                    return true;
+                }
+                if (task.parent == null && (System.nanoTime() > deadline ||
+                        (stopCondition != null && stopCondition.getAsBoolean()))) {
+                    task.aborted = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+
+        /**
+         * Searching the position: serially close to the leaves, otherwise the first move serially and
+         * the rest in parallel.
+         *
+         * @return The score of the position from the point of view of the player to move.
+         */
+        @Override
+        protected Integer compute() {
+            if (isAborted()) {
+                return 0;
+            }
+            if (brotherWindow) {
+                int parentAlpha = parent.sharedAlpha;
+                windowAlpha = parentAlpha;
+                alpha = -parentAlpha - 1;
+                beta = -parentAlpha;
+            }
+            if (depth < MIN_SPLIT_DEPTH && parent != null) {
+                SearchEngine engine = engines.get();
+                int score = engine.searchNode(board, color, depth, alpha, beta, this::isAborted);
+                nodes.add(engine.getNodes());
+                return score;
+            }
+            nodes.increment();
+            long moves = board.getPossibleMovesMask(color);
+            if (moves == 0) {
+                if (board.getPossibleMovesMask(color.opposite()) == 0) {
+                    return SearchEngine.scoreFinalPosition(board, color);
+                }
+                return -new NodeTask(new Board(board), color.opposite(), depth, -beta, -alpha, this,
+                        Board.PASS).compute();
+            }
+            TranspositionTable table = engines.get().getTranspositionTable();
+            long key = board.getHash(color);
+            long entry = table.probe(key);
+            int firstMove = hintMove;
+            if (entry != TranspositionTable.MISSING && parent != null) {
+                int score = TranspositionTable.scoreOf(entry);
+                int bound = TranspositionTable.boundOf(entry);
+                if (TranspositionTable.depthOf(entry) >= depth && (bound == TranspositionTable.EXACT ||
+                        (bound == TranspositionTable.LOWER && score >= beta) ||
+                        (bound == TranspositionTable.UPPER && score <= alpha))) {
+                    return score;
+                }
+                firstMove = TranspositionTable.moveOf(entry);
+            }
+            int[] order = SearchEngine.orderMoves(moves, firstMove);
+            UndoRecord undo = new UndoRecord();
+            int currentAlpha = alpha;
+            NodeTask first = child(order[0], -beta, -currentAlpha, undo);
+            int best = -first.compute();
+            bestMove = order[0];
+            if (isAborted()) {
+                return best;
+            }
+            if (best >= beta) {
+                table.store(key, depth, TranspositionTable.LOWER, bestMove, best);
+                return best;
+            }
+            currentAlpha = Math.max(currentAlpha, best);
+            sharedAlpha = currentAlpha;
+            // The brothers are forked in reverse order, so the idle threads steal the last (least promising)
+            // moves, while this thread pops and searches the moves in the order of their priority.
+            List<NodeTask> brothers = new ArrayList<>(order.length - 1);
+            for (int index = 1; index < order.length; index++) {
+                NodeTask brother = child(order[index], -currentAlpha - 1, -currentAlpha, undo);
+                brother.brotherWindow = true;
+                brothers.add(brother);
+            }
+            for (int index = brothers.size() - 1; index >= 0; index--) {
+                brothers.get(index).fork();
+            }
+            for (int index = 0; index < brothers.size(); index++) {
+                NodeTask brother = brothers.get(index);
+                int score = -brother.join();
+                if (isAborted()) {
+                    continue;
+                }
+                // The window of the brother may be older (lower) than the current one: a score, which failed high
+                // against it, is re-searched, even if it does not beat the current lower bound.
+                if (score > brother.windowAlpha && score < beta) {
+                    score = -child(order[index + 1], -beta, -currentAlpha, undo).compute();
+                    if (isAborted()) {
+                        continue;
+                    }
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = order[index + 1];
+                    if (score >= beta) {
+                        aborted = true;
+                    } else if (score > currentAlpha) {
+                        currentAlpha = score;
+                        sharedAlpha = currentAlpha;
+                    }
+                }
+            }
+            if (best >= beta) {
+                table.store(key, depth, TranspositionTable.LOWER, bestMove, best);
+            } else if (!isAborted()) {
+                table.store(key, depth, best > alpha ? TranspositionTable.EXACT : TranspositionTable.UPPER,
+                        bestMove, best);
+            }
+            return best;
+        }
+
+
+        /**
+         * Creating the task of the position after the given move.
+         *
+         * @param move  The move.
+         * @param alpha The lower bound of the interesting scores of the child.
+         * @param beta  The upper bound of the interesting scores of the child.
+         * @param undo  The record used for making the move.
+         * @return The task of the child position.
+         */
+        private NodeTask child(int move, int alpha, int beta, UndoRecord undo) {
+            Board childBoard = new Board(board);
+            childBoard.makeMove(color, move, undo);
+            return new NodeTask(childBoard, color.opposite(), depth - 1, alpha, beta, this, Board.PASS);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.Symmetry;
+import reversi.object.UndoRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Class of the table-driven evaluation function.
+ * The board is covered by patterns (lines of cells: the edges with the X cells, the corner squares, the rows
+ * and the diagonals). Every configuration of a pattern is a number in base 3 (0 for an empty cell, 1 for
+ * a black disk, 2 for a white disk), and its value is looked up in the table of the pattern. All the symmetric
+ * copies (instances) of a pattern share one table. The values of the patterns are added with the mobility
+ * and the parity terms; all the weights depend on the phase of the game.
+ * The configurations are kept with the offset of the table of their pattern added, so an evaluation reads
+ * the values straight from the array of the phase.
+ * The configurations of the instances are updated incrementally on every move made and taken back by the
+ * search, so an evaluation costs only the lookups and the mobility.
+ */
+public class PatternEvaluator implements Evaluator {
+
+    /**
+     * The cells of the patterns (in one orientation; the rest are made by the symmetries of the board):
+     * the edge with the two X cells, the 3x3 corner, the second, third and fourth rows, and the diagonals
+     * of 8, 7, 6, 5 and 4 cells.
+     */
+    static final int[][] PATTERNS = {
+            {0, 1, 2, 3, 4, 5, 6, 7, 9, 14},
+            {0, 1, 2, 8, 9, 10, 16, 17, 18},
+            {8, 9, 10, 11, 12, 13, 14, 15},
+            {16, 17, 18, 19, 20, 21, 22, 23},
+            {24, 25, 26, 27, 28, 29, 30, 31},
+            {0, 9, 18, 27, 36, 45, 54, 63},
+            {1, 10, 19, 28, 37, 46, 55},
+            {2, 11, 20, 29, 38, 47},
+            {3, 12, 21, 30, 39},
+            {4, 13, 22, 31}
+    };
+
+    /**
+     * The cells of the instances of the patterns.
+     */
+    static final int[][] INSTANCE_SQUARES;
+
+    /**
+     * The pattern of each instance.
+     */
+    static final int[] INSTANCE_PATTERN;
+
+    /**
+     * The offsets of the tables of the patterns in the array of a phase (one more for the total size).
+     */
+    private static final int[] PATTERN_OFFSETS;
+
+    /**
+     * The instances covering each cell.
+     */
+    private static final int[][] SQUARE_INSTANCES;
+
+    /**
+     * The power of 3 of each cell in each instance of {@link #SQUARE_INSTANCES}.
+     */
+    private static final int[][] SQUARE_POWERS;
+
+    /**
+     * The highest absolute value of an evaluation, so it stays below the scores of the finished games.
+     */
+    private static final int MAX_SCORE = SearchEngine.SCORE_WIN / 2;
+
+    static {
+        PATTERN_OFFSETS = new int[PATTERNS.length + 1];
+        for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+            PATTERN_OFFSETS[pattern + 1] = PATTERN_OFFSETS[pattern] + tableSize(pattern);
+        }
+        List<int[]> instances = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int pattern = 0; pattern < PATTERNS.length; pattern++) {
+            Set<Long> seen = new HashSet<>();
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                int[] squares = new int[PATTERNS[pattern].length];
+                long cells = 0;
+                for (int index = 0; index < squares.length; index++) {
+                    squares[index] = Symmetry.transformSquare(PATTERNS[pattern][index], symmetry);
+                    cells |= 1L << squares[index];
+                }
+                if (seen.add(cells)) {
+                    instances.add(squares);
+                    owners.add(pattern);
+                }
+            }
+        }
+        INSTANCE_SQUARES = instances.toArray(new int[0][]);
+        INSTANCE_PATTERN = owners.stream().mapToInt(Integer::intValue).toArray();
+        int[] counts = new int[64];
+        for (int[] squares : INSTANCE_SQUARES) {
+            for (int square : squares) {
+                counts[square]++;
+            }
+        }
+        SQUARE_INSTANCES = new int[64][];
+        SQUARE_POWERS = new int[64][];
+        for (int square = 0; square < 64; square++) {
+            SQUARE_INSTANCES[square] = new int[counts[square]];
+            SQUARE_POWERS[square] = new int[counts[square]];
+        }
+        Arrays.fill(counts, 0);
+        for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+            int power = 1;
+            for (int square : INSTANCE_SQUARES[instance]) {
+                SQUARE_INSTANCES[square][counts[square]] = instance;
+                SQUARE_POWERS[square][counts[square]] = power;
+                counts[square]++;
+                power *= 3;
+            }
+        }
+    }
+
+    /**
+     * The weights of the evaluator.
+     */
+    private final PatternWeights weights;
+
+    /**
+     * The current configuration of each instance (with the offset of its pattern).
+     */
+    private final int[] indices;
+
+    public PatternEvaluator() {
+        this(PatternWeights.getDefault());
+    }
+
+    public PatternEvaluator(PatternWeights weights) {
+        this.weights = weights;
+        indices = new int[INSTANCE_SQUARES.length];
+    }
+
+
+    /**
+     * Evaluating the position reported last: the values of the patterns, the mobility and the parity.
+     *
+     * @param board The analysed board.
+     * @param color The color of the player to move.
+     * @return The score from the point of view of the player to move.
+     */
+    @Override
+    public int evaluate(Board board, Color color) {
+        long black = board.getDisks(Color.BLACK);
+        long white = board.getDisks(Color.WHITE);
+        int empties = 64 - Long.bitCount(black | white);
+        int phase = PatternWeights.phaseOf(empties);
+        short[] table = weights.tables[phase];
+        int score = 0;
+        for (int index : indices) {
+            score += table[index];
+        }
+        score += weights.mobility[phase] * (Long.bitCount(Board.generateMoves(black, white)) -
+                Long.bitCount(Board.generateMoves(white, black)));
+        if (color == Color.WHITE) {
+            score = -score;
+        }
+        score += (empties & 1) == 1 ? weights.parity[phase] : -weights.parity[phase];
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+    }
+
+
+    /**
+     * Computing the configurations of all the instances from the board.
+     *
+     * @param board The board.
+     */
+    @Override
+    public void setPosition(Board board) {
+        computeIndices(board.getDisks(Color.BLACK), board.getDisks(Color.WHITE), indices);
+        for (int instance = 0; instance < indices.length; instance++) {
+            indices[instance] += PATTERN_OFFSETS[INSTANCE_PATTERN[instance]];
+        }
+    }
+
+
+    /**
+     * Updating the configurations of the instances covering the new disk and the flipped disks.
+     *
+     * @param undo The record of the move.
+     */
+    @Override
+    public void makeMove(UndoRecord undo) {
+        update(undo, 1);
+    }
+
+
+    /**
+     * Restoring the configurations of the instances covering the taken back disk and the flipped disks.
+     *
+     * @param undo The record of the move.
+     */
+    @Override
+    public void unmakeMove(UndoRecord undo) {
+        update(undo, -1);
+    }
+
+
+    /**
+     * Changing the configurations by a move: the new disk adds its digit (1 or 2), and a flipped disk
+     * changes its digit from 2 to 1 (for a black move) or from 1 to 2 (for a white move).
+     *
+     * @param undo      The record of the move.
+     * @param direction 1 for making the move, -1 for taking it back.
+     */
+    private void update(UndoRecord undo, int direction) {
+        int square = undo.getSquare();
+        if (square == Board.PASS) {
+            return;
+        }
+        boolean black = undo.getColor() == Color.BLACK;
+        int placed = (black ? 1 : 2) * direction;
+        int flipped = (black ? -1 : 1) * direction;
+        int[] instances = SQUARE_INSTANCES[square];
+        int[] powers = SQUARE_POWERS[square];
+        for (int index = 0; index < instances.length; index++) {
+            indices[instances[index]] += placed * powers[index];
+        }
+        long flips = undo.getFlips();
+        while (flips != 0) {
+            int flip = Long.numberOfTrailingZeros(flips);
+            flips &= flips - 1;
+            instances = SQUARE_INSTANCES[flip];
+            powers = SQUARE_POWERS[flip];
+            for (int index = 0; index < instances.length; index++) {
+                indices[instances[index]] += flipped * powers[index];
+            }
+        }
+    }
+
+
+    /**
+     * Computing the configurations of all the instances.
+     *
+     * @param black   The black disks.
+     * @param white   The white disks.
+     * @param indices The array, where the configuration of each instance is written.
+     */
+    public static void computeIndices(long black, long white, int[] indices) {
+        for (int instance = 0; instance < INSTANCE_SQUARES.length; instance++) {
+            int[] squares = INSTANCE_SQUARES[instance];
+            int index = 0;
+            for (int cell = squares.length - 1; cell >= 0; cell--) {
+                long mask = 1L << squares[cell];
+                index = index * 3 + ((black & mask) != 0 ? 1 : (white & mask) != 0 ? 2 : 0);
+            }
+            indices[instance] = index;
+        }
+    }
+
+
+    /**
+     * Get the number of instances of the patterns.
+     *
+     * @return The number of instances.
+     */
+    public static int getInstanceCount() {
+        return INSTANCE_SQUARES.length;
+    }
+
+
+    /**
+     * Get the number of patterns.
+     *
+     * @return The number of patterns.
+     */
+    public static int getPatternCount() {
+        return PATTERNS.length;
+    }
+
+
+    /**
+     * Get the pattern of an instance.
+     *
+     * @param instance The index of the instance.
+     * @return The index of the pattern.
+     */
+    public static int getPatternOf(int instance) {
+        return INSTANCE_PATTERN[instance];
+    }
+
+
+    /**
+     * Get the number of configurations of a pattern (the size of its table).
+     *
+     * @param pattern The index of the pattern.
+     * @return 3 to the power of the number of cells of the pattern.
+     */
+    public static int tableSize(int pattern) {
+        int size = 1;
+        for (int cell = 0; cell < PATTERNS[pattern].length; cell++) {
+            size *= 3;
+        }
+        return size;
+    }
+
+
+    /**
+     * Get the offset of the table of a pattern in the array of a phase.
+     *
+     * @param pattern The index of the pattern (the number of patterns for the total size of the array).
+     * @return The offset.
+     */
+    public static int patternOffset(int pattern) {
+        return PATTERN_OFFSETS[pattern];
+    }
+}
@@ -0,0 +1,272 @@
+package reversi.logic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+/**
+ * Class of the weights of the {@link PatternEvaluator}: one table of quantized values per pattern and phase
+ * of the game, plus the weights of the mobility and of the parity per phase. The tables of all the patterns
+ * of a phase are kept one after another in a single array (about 200 KB), so the evaluation of the positions
+ * of one phase stays in the L2 cache.
+ * The weights are immutable once loaded, so one instance is shared by all the evaluators.
+ * The binary format (big-endian) is: the magic number, the version, the number of phases and the number of
+ * patterns (ints), then for each phase the tables of the patterns (shorts, 3 ^ size of the pattern each),
+ * the mobility weight and the parity weight (shorts).
+ */
+public class PatternWeights {
+
+    /**
+     * The number of phases of the game (by the number of disks), each with its own weights.
+     */
+    public static final int PHASES = 4;
+
+    /**
+     * The system property with the path of a weight file loaded at startup instead of the shipped weights.
+     */
+    public static final String WEIGHTS_PROPERTY = "reversi.weights";
+
+    /**
+     * The name of the resource with the shipped weights (next to this class), trained by
+     * {@link reversi.tools.WeightTrainer}.
+     */
+    public static final String RESOURCE = "weights.bin";
+
+    /**
+     * The magic number at the start of a weight file ("RVWT").
+     */
+    private static final int MAGIC = 0x52565754;
+
+    /**
+     * The version of the format of the weight file.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The tables of the patterns by the phase: [phase][offset of the pattern + index of the configuration].
+     */
+    final short[][] tables;
+
+    /**
+     * The weight of a possible move by the phase.
+     */
+    final short[] mobility;
+
+    /**
+     * The weight of having the last move (an odd number of empty cells with the player to move) by the phase.
+     */
+    final short[] parity;
+
+    public PatternWeights(short[][] tables, short[] mobility, short[] parity) {
+        this.tables = tables;
+        this.mobility = mobility;
+        this.parity = parity;
+    }
+
+
+    /**
+     * Get the phase of the game.
+     *
+     * @param empties The number of empty cells.
+     * @return The phase (0 at the start, {@link #PHASES} - 1 at the end).
+     */
+    public static int phaseOf(int empties) {
+        return Math.min(PHASES - 1, Math.max(0, (60 - empties) * PHASES / 60));
+    }
+
+
+    /**
+     * Get the value of a configuration of a pattern.
+     *
+     * @param phase   The phase of the game.
+     * @param pattern The index of the pattern.
+     * @param index   The index of the configuration.
+     * @return The value (from the point of view of the black player).
+     */
+    public int getValue(int phase, int pattern, int index) {
+        return tables[phase][PatternEvaluator.patternOffset(pattern) + index];
+    }
+
+
+    /**
+     * Get the weight of a possible move.
+     *
+     * @param phase The phase of the game.
+     * @return The weight.
+     */
+    public int getMobility(int phase) {
+        return mobility[phase];
+    }
+
+
+    /**
+     * Get the weight of the parity.
+     *
+     * @param phase The phase of the game.
+     * @return The weight.
+     */
+    public int getParity(int phase) {
+        return parity[phase];
+    }
+
+
+    /**
+     * Creating weights, which evaluate the positions like the {@link SquareEvaluator}: the value of a pattern
+     * configuration is the sum of the weights of its cells, each shared between the patterns covering the cell.
+     *
+     * @return The new weights.
+     */
+    public static PatternWeights fromSquareWeights() {
+        int[] covers = new int[64];
+        for (int[] squares : PatternEvaluator.INSTANCE_SQUARES) {
+            for (int square : squares) {
+                covers[square]++;
+            }
+        }
+        int[][] patterns = PatternEvaluator.PATTERNS;
+        short[] phaseTable = new short[PatternEvaluator.patternOffset(patterns.length)];
+        for (int pattern = 0; pattern < patterns.length; pattern++) {
+            int[] squares = patterns[pattern];
+            int offset = PatternEvaluator.patternOffset(pattern);
+            for (int index = 0; index < PatternEvaluator.tableSize(pattern); index++) {
+                double value = 0;
+                int digits = index;
+                for (int square : squares) {
+                    int digit = digits % 3;
+                    digits /= 3;
+                    if (digit != 0) {
+                        double weight = (double) SquareEvaluator.squareWeight(square) / covers[square];
+                        value += digit == 1 ? weight : -weight;
+                    }
+                }
+                phaseTable[offset + index] = (short) Math.round(value);
+            }
+        }
+        short[][] tables = new short[PHASES][];
+        short[] mobility = new short[PHASES];
+        for (int phase = 0; phase < PHASES; phase++) {
+            tables[phase] = phaseTable;
+            mobility[phase] = SquareEvaluator.MOBILITY_WEIGHT;
+        }
+        return new PatternWeights(tables, mobility, new short[PHASES]);
+    }
+
+
+    /**
+     * Reading the weights from a stream.
+     *
+     * @param input The stream (not closed).
+     * @return The weights.
+     * @throws IOException If the stream cannot be read or does not contain weights of the current patterns.
+     */
+    public static PatternWeights read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a weight file");
+        }
+        int[][] patterns = PatternEvaluator.PATTERNS;
+        if (data.readInt() != PHASES || data.readInt() != patterns.length) {
+            throw new IOException("The weight file does not match the patterns");
+        }
+        short[][] tables = new short[PHASES][PatternEvaluator.patternOffset(patterns.length)];
+        short[] mobility = new short[PHASES];
+        short[] parity = new short[PHASES];
+        for (int phase = 0; phase < PHASES; phase++) {
+            for (int index = 0; index < tables[phase].length; index++) {
+                tables[phase][index] = data.readShort();
+            }
+            mobility[phase] = data.readShort();
+            parity[phase] = data.readShort();
+        }
+        return new PatternWeights(tables, mobility, parity);
+    }
+
+
+    /**
+     * Writing the weights to a stream.
+     *
+     * @param output The stream (flushed, not closed).
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(PHASES);
+        data.writeInt(PatternEvaluator.PATTERNS.length);
+        for (int phase = 0; phase < PHASES; phase++) {
+            for (short value : tables[phase]) {
+                data.writeShort(value);
+            }
+            data.writeShort(mobility[phase]);
+            data.writeShort(parity[phase]);
+        }
+        data.flush();
+    }
+
+
+    /**
+     * Writing the weights to a file.
+     *
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        try (OutputStream output = Files.newOutputStream(path)) {
+            write(output);
+        }
+    }
+
+
+    /**
+     * Get the weights used by default: the file given by the system property {@link #WEIGHTS_PROPERTY} if it
+     * is set, otherwise the shipped resource {@link #RESOURCE}. If the weights cannot be read, the weights
+     * seeded from the cell weights are used.
+     * The weights are loaded once.
+     *
+     * @return The default weights.
+     */
+    public static PatternWeights getDefault() {
+        return DefaultHolder.WEIGHTS;
+    }
+
+
+    /**
+     * Loading the default weights.
+     *
+     * @return The weights.
+     */
+    private static PatternWeights loadDefault() {
+        String path = System.getProperty(WEIGHTS_PROPERTY);
+        try (InputStream input = path != null ? Files.newInputStream(Paths.get(path)) :
+                PatternWeights.class.getResourceAsStream(RESOURCE)) {
+            if (input != null) {
+                return read(input);
+            }
+            System.out.println("Couldn't find the evaluation weights " + RESOURCE);
+        } catch (IOException e) {
+            System.out.println("Couldn't read the evaluation weights: " + e.getMessage());
+        }
+        return fromSquareWeights();
+    }
+
+
+    /**
+     * Holder of the default weights, loaded when they are used for the first time.
+     */
+    private static class DefaultHolder {
+
+        /**
+         * The default weights.
+         */
+        private static final PatternWeights WEIGHTS = loadDefault();
+    }
+}
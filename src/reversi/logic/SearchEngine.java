@@ -0,0 +1,695 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+
+/**
+ * Class of the search engine of the robot.
+ * Searches the game tree with negamax, alpha-beta pruning and principal variation search (the first move of
+ * each position is searched with the full window, the rest with a null window and re-searched if they turn out
+ * to be better). The moves are made and taken back in place, so a search does not create any boards.
+ * The moves of a position are ordered: the best move from the transposition table first, then the two killer
+ * moves of the ply (the last moves, which caused a cutoff at the same distance from the root), then the rest
+ * by the history table (how often and how deep each cell of each player caused a cutoff), the ties broken by
+ * the static order of {@link #MOVE_ORDER}. Far from the leaves the moves, which leave the opponent the fewest
+ * replies, are tried before the history table is consulted.
+ * The searched positions are cached in a {@link TranspositionTable}, which is kept between the searches.
+ * The leaves are scored by an {@link Evaluator}, which is told about every move made and taken back.
+ * An engine is not thread-safe: each thread needs its own engine.
+ */
+public class SearchEngine implements Searcher {
+
+    /**
+     * The score bound, higher than any score of a position.
+     */
+    public static final int INFINITY = 1_000_000;
+
+    /**
+     * The score of a won game (the difference of the disks is added to it).
+     */
+    public static final int SCORE_WIN = 100_000;
+
+    /**
+     * The maximal number of plies in a search path (moves and passes).
+     */
+    static final int MAX_PLY = 128;
+
+    /**
+     * The groups of the cells in the order, in which the moves are tried:
+     * corners, the A cells (two cells from a corner on the edges), the centre,
+     * the inner cells, the B cells (the middle of the edges), the C cells (next to the corners on the edges)
+     * and the X cells (diagonally next to the corners).
+     */
+    static final long[] MOVE_ORDER = {
+            0x8100000000000081L,
+            0x2400810000810024L,
+            0x0000182424180000L,
+            0x003C665A5A663C00L,
+            0x1800008181000018L,
+            0x4281000000008142L,
+            0x0042000000004200L
+    };
+
+    /**
+     * The default size of the transposition table (in megabytes).
+     */
+    public static final int DEFAULT_TABLE_SIZE_MB = 16;
+
+    /**
+     * The number of nodes between two checks of the time budget (a power of two).
+     */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    /**
+     * The lowest growth of the time between two iterations of the iterative deepening, used for predictions.
+     */
+    private static final double MIN_BRANCHING = 1.5;
+
+    /**
+     * The highest growth of the time between two iterations of the iterative deepening, used for predictions.
+     */
+    private static final double MAX_BRANCHING = 8;
+
+    /**
+     * The ordering key of the first killer move (higher than any key of the history table).
+     */
+    private static final int KILLER_KEY = Integer.MAX_VALUE - 1;
+
+    /**
+     * The value of the history table, above which all the values are halved.
+     */
+    private static final int HISTORY_LIMIT = 1 << 28;
+
+    /**
+     * The lowest remaining depth, at which the moves (except the killer moves) are ordered by the mobility
+     * they leave to the opponent first and by the history table second.
+     */
+    private static final int MOBILITY_ORDER_DEPTH = 4;
+
+    /**
+     * The records for taking back the moves, one per ply of the search path.
+     */
+    private final UndoRecord[] undoStack;
+
+    /**
+     * The cache of the searched positions, used for cutoffs and for trying the best known move first.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * The evaluation function of the leaves, updated on every move made and taken back.
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * The two killer moves of each ply ({@link Board#PASS} if none).
+     */
+    private final int[][] killers;
+
+    /**
+     * The history table: the sum of the squared depths of the cutoffs caused by each cell, by the color.
+     */
+    private final int[][] history;
+
+    /**
+     * The moves of each ply of the search path, in the order of searching.
+     */
+    private final int[][] moveLists;
+
+    /**
+     * The ordering keys of {@link #moveLists}.
+     */
+    private final int[][] moveKeys;
+
+    /**
+     * Whether the killer moves, the history table and the mobility are used for ordering the moves.
+     */
+    private boolean moveOrdering = true;
+
+    /**
+     * The number of positions visited by the current search.
+     */
+    private long nodes;
+
+    /**
+     * The moment (System.nanoTime) when the current search has to stop.
+     */
+    private long deadline;
+
+    /**
+     * Whether the current search was stopped because the time budget ran out.
+     */
+    private boolean stopped;
+
+    /**
+     * The condition, which stops the search from outside (checked together with the time budget), or null.
+     */
+    private BooleanSupplier stopCondition;
+
+    /**
+     * The listener of the finished iterations, or null.
+     */
+    private Consumer<SearchResult> progressListener;
+
+    /**
+     * The index of the engine among the threads of a Lazy SMP search (0 for the main search).
+     */
+    private int helperIndex;
+
+    /**
+     * The best completely searched move of the root in the current iteration.
+     */
+    private int rootBestMove;
+
+    /**
+     * The score of {@link #rootBestMove}.
+     */
+    private int rootBestScore;
+
+    public SearchEngine() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE_MB));
+    }
+
+    public SearchEngine(TranspositionTable table) {
+        this(table, new PatternEvaluator());
+    }
+
+    public SearchEngine(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+        undoStack = new UndoRecord[MAX_PLY];
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            undoStack[ply] = new UndoRecord();
+        }
+        killers = new int[MAX_PLY][2];
+        history = new int[Color.values().length][64];
+        moveLists = new int[MAX_PLY][64];
+        moveKeys = new int[MAX_PLY][64];
+        clearKillers();
+    }
+
+
+    /**
+     * Searching the best move to the given depth. The given board is not changed.
+     *
+     * @param board The analysed board.
+     * @param color The color of the player to move.
+     * @param depth The depth of the search in plies (at least 1).
+     * @return The result of the search.
+     */
+    public SearchResult search(Board board, Color color, int depth) {
+        return search(board, color, depth, 0);
+    }
+
+
+    /**
+     * Searching the best move with iterative deepening: the position is searched to depth 1, 2, 3 and so on,
+     * and each iteration tries the best move of the previous one first. The search stops when the maximal depth
+     * is reached, when the time budget runs out or when the next iteration is not expected to finish in time
+     * (its duration is predicted from the durations of the previous iterations).
+     * The given board is not changed.
+     *
+     * @param board            The analysed board.
+     * @param color            The color of the player to move.
+     * @param maxDepth         The maximal depth of the search in plies (at least 1).
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     * @return The result of the deepest search, with the best move found so far if the last one was stopped.
+     */
+    @Override
+    public SearchResult search(Board board, Color color, int maxDepth, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000 : Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+        maxDepth = Math.max(1, maxDepth);
+        clearKillers();
+        ageHistory();
+        Board position = new Board(board);
+        evaluator.setPosition(position);
+        long moves = position.getPossibleMovesMask(color);
+        if (moves == 0) {
+            return new SearchResult(Board.PASS, evaluator.evaluate(position, color), 0, 0, 0);
+        }
+        int empties = 64 - Long.bitCount(position.getDisks(Color.BLACK) | position.getDisks(Color.WHITE));
+        SearchResult result = new SearchResult(firstMove(moves), evaluator.evaluate(position, color), 0, 0, 0);
+        long previousIterationTime = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long iterationStart = System.nanoTime();
+            int iterationDepth = Math.min(maxDepth, depth + (helperIndex & 1));
+            searchRoot(position, color, iterationDepth);
+            long now = System.nanoTime();
+            if (rootBestMove != Board.PASS) {
+                result = new SearchResult(rootBestMove, rootBestScore, iterationDepth, nodes,
+                        (now - start) / 1_000_000);
+                if (progressListener != null && !stopped) {
+                    progressListener.accept(result);
+                }
+            }
+            if (stopped || depth >= empties) {
+                break;
+            }
+            long iterationTime = now - iterationStart;
+            if (previousIterationTime > 0) {
+                double branching = Math.min(MAX_BRANCHING, Math.max(MIN_BRANCHING,
+                        (double) iterationTime / previousIterationTime));
+                if (now + iterationTime * branching > deadline) {
+                    break;
+                }
+            }
+            previousIterationTime = Math.max(1, iterationTime);
+        }
+        return result;
+    }
+
+
+    /**
+     * Searching the moves of the root position to the given depth.
+     * The best completely searched move and its score are kept in {@link #rootBestMove} and
+     * {@link #rootBestScore}, so a stopped iteration still gives a move.
+     *
+     * @param position The analysed board.
+     * @param color    The color of the player to move.
+     * @param depth    The depth of the search.
+     */
+    private void searchRoot(Board position, Color color, int depth) {
+        rootBestMove = Board.PASS;
+        rootBestScore = -INFINITY;
+        long moves = position.getPossibleMovesMask(color);
+        long key = position.getHash(color);
+        long entry = table.probe(key);
+        int[] order = orderMoves(moves, entry == TranspositionTable.MISSING ? Board.PASS :
+                TranspositionTable.moveOf(entry));
+        if (helperIndex > 0 && order.length > 2) {
+            rotate(order, 1, helperIndex % (order.length - 1));
+        }
+        UndoRecord undo = undoStack[0];
+        int alpha = -INFINITY;
+        for (int move : order) {
+            position.makeMove(color, move, undo);
+            evaluator.makeMove(undo);
+            int score;
+            if (rootBestMove == Board.PASS) {
+                score = -negamax(position, color.opposite(), depth - 1, -INFINITY, INFINITY, 1);
+            } else {
+                score = -negamax(position, color.opposite(), depth - 1, -alpha - 1, -alpha, 1);
+                if (score > alpha && !stopped) {
+                    score = -negamax(position, color.opposite(), depth - 1, -INFINITY, -alpha, 1);
+                }
+            }
+            evaluator.unmakeMove(undo);
+            position.unmakeMove(undo);
+            if (stopped) {
+                return;
+            }
+            if (rootBestMove == Board.PASS || score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+                rootBestScore = score;
+            }
+        }
+        table.store(key, depth, TranspositionTable.EXACT, rootBestMove, alpha);
+    }
+
+
+    /**
+     * Ordering the moves: the given best move first, then the static order.
+     *
+     * @param moves    The mask of the possible moves.
+     * @param bestMove The move to try first ({@link Board#PASS} if none).
+     * @return The moves in the order of searching.
+     */
+    static int[] orderMoves(long moves, int bestMove) {
+        int[] order = new int[Long.bitCount(moves)];
+        int count = 0;
+        if (bestMove != Board.PASS && (moves & (1L << bestMove)) != 0) {
+            order[count++] = bestMove;
+            moves &= ~(1L << bestMove);
+        }
+        for (long group : MOVE_ORDER) {
+            long candidates = moves & group;
+            while (candidates != 0) {
+                order[count++] = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+            }
+        }
+        return order;
+    }
+
+
+    /**
+     * Rotating the end of an array to the left.
+     *
+     * @param moves    The array.
+     * @param from     The first rotated index.
+     * @param distance The distance of the rotation.
+     */
+    private static void rotate(int[] moves, int from, int distance) {
+        for (int step = 0; step < distance; step++) {
+            int first = moves[from];
+            System.arraycopy(moves, from + 1, moves, from, moves.length - from - 1);
+            moves[moves.length - 1] = first;
+        }
+    }
+
+
+    /**
+     * Get the move, which is tried first by the static move order.
+     *
+     * @param moves The mask of the possible moves.
+     * @return The index of the cell.
+     */
+    private static int firstMove(long moves) {
+        for (long group : MOVE_ORDER) {
+            if ((moves & group) != 0) {
+                return Long.numberOfTrailingZeros(moves & group);
+            }
+        }
+        return Board.PASS;
+    }
+
+
+    /**
+     * Searching the score of a single position without a time budget. Used by the parallel searches,
+     * which split the upper part of the tree between the threads and search the subtrees with an engine.
+     *
+     * @param board         The analysed board (changed during the search and restored at the end).
+     * @param color         The color of the player to move.
+     * @param depth         The depth of the search.
+     * @param alpha         The lower bound of the interesting scores.
+     * @param beta          The upper bound of the interesting scores.
+     * @param stopCondition The condition, which stops the search (the score is meaningless then).
+     * @return The score of the position from the point of view of the player to move.
+     */
+    int searchNode(Board board, Color color, int depth, int alpha, int beta, BooleanSupplier stopCondition) {
+        BooleanSupplier previousCondition = this.stopCondition;
+        this.stopCondition = stopCondition;
+        deadline = Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+        evaluator.setPosition(board);
+        int score = negamax(board, color, depth, alpha, beta, 0);
+        this.stopCondition = previousCondition;
+        return score;
+    }
+
+
+    /**
+     * Set the condition, which stops the searches of the engine from outside (checked together with
+     * the time budget).
+     *
+     * @param stopCondition The condition (null for none).
+     */
+    @Override
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+
+    /**
+     * Set the listener, which gets the result of every finished iteration of the searches.
+     *
+     * @param progressListener The listener (null for none).
+     */
+    @Override
+    public void setProgressListener(Consumer<SearchResult> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+
+    /**
+     * Making the engine a helper of a Lazy SMP search: the helper searches one ply deeper in every other
+     * iteration and tries the moves of the root in a different order, so the helpers fill the shared
+     * transposition table with different parts of the tree.
+     *
+     * @param helperIndex The index of the helper (0 for the main search).
+     */
+    void setHelperIndex(int helperIndex) {
+        this.helperIndex = helperIndex;
+    }
+
+
+    /**
+     * Checking the time budget and the stop condition (every {@link #TIME_CHECK_INTERVAL} nodes) and stopping
+     * the search when the time runs out or the condition holds.
+     */
+    private void checkTime() {
+        if ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && (System.nanoTime() > deadline ||
+                (stopCondition != null && stopCondition.getAsBoolean()))) {
+            stopped = true;
+        }
+    }
+
+
+    /**
+     * Searching the score of a position with negamax and alpha-beta pruning (fail-soft).
+     * The transposition table is consulted first: a deep enough entry can end the search of the position,
+     * otherwise its best move is tried first.
+     *
+     * @param board The analysed board (changed during the search and restored at the end).
+     * @param color The color of the player to move.
+     * @param depth The remaining depth in plies.
+     * @param alpha The lower bound of the interesting scores.
+     * @param beta  The upper bound of the interesting scores.
+     * @param ply   The distance from the root of the search.
+     * @return The score of the position from the point of view of the player to move.
+     */
+    private int negamax(Board board, Color color, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        checkTime();
+        if (stopped) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(board, color);
+        }
+        long moves = board.getPossibleMovesMask(color);
+        if (moves == 0) {
+            if (board.getPossibleMovesMask(color.opposite()) == 0) {
+                return scoreFinalPosition(board, color);
+            }
+            return -negamax(board, color.opposite(), depth, -beta, -alpha, ply + 1);
+        }
+        long key = board.getHash(color);
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISSING && TranspositionTable.depthOf(entry) >= depth) {
+            int score = TranspositionTable.scoreOf(entry);
+            int bound = TranspositionTable.boundOf(entry);
+            if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta) ||
+                    (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+        int count = sortMoves(board, color, moves, hashMoveMask(entry, moves), depth, ply);
+        int[] list = moveLists[ply];
+        int originalAlpha = alpha;
+        UndoRecord undo = undoStack[ply];
+        int best = -INFINITY;
+        int bestMove = Board.PASS;
+        for (int index = 0; index < count; index++) {
+            int move = list[index];
+            board.makeMove(color, move, undo);
+            evaluator.makeMove(undo);
+            int score;
+            if (bestMove == Board.PASS) {
+                score = -negamax(board, color.opposite(), depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -negamax(board, color.opposite(), depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -negamax(board, color.opposite(), depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            evaluator.unmakeMove(undo);
+            board.unmakeMove(undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score >= beta) {
+                    table.store(key, depth, TranspositionTable.LOWER, move, score);
+                    rememberCutoff(color, move, depth, ply);
+                    return score;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+            }
+        }
+        table.store(key, depth, best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER,
+                bestMove, best);
+        return best;
+    }
+
+
+    /**
+     * Ordering the moves of a position into the move list of the ply: the hash move first, then the killer
+     * moves, then the rest by the mobility of the opponent (far from the leaves) and the history table
+     * (or only by the static order, if the move ordering is off).
+     *
+     * @param board    The analysed board.
+     * @param color    The color of the player to move.
+     * @param moves    The mask of the possible moves.
+     * @param hashMove The mask of the best move from the transposition table (0 if none).
+     * @param depth    The remaining depth of the position.
+     * @param ply      The distance from the root of the search.
+     * @return The number of moves.
+     */
+    private int sortMoves(Board board, Color color, long moves, long hashMove, int depth, int ply) {
+        long player = board.getDisks(color);
+        long opponent = board.getDisks(color.opposite());
+        boolean mobility = moveOrdering && depth >= MOBILITY_ORDER_DEPTH;
+        int[] list = moveLists[ply];
+        int[] keys = moveKeys[ply];
+        int[] colorHistory = history[color.ordinal()];
+        int firstKiller = killers[ply][0];
+        int secondKiller = killers[ply][1];
+        int count = 0;
+        if (hashMove != 0) {
+            list[count++] = Long.numberOfTrailingZeros(hashMove);
+        }
+        int sorted = count;
+        for (long group : MOVE_ORDER) {
+            long candidates = moves & group & ~hashMove;
+            while (candidates != 0) {
+                int move = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                int key = 0;
+                if (moveOrdering) {
+                    key = move == firstKiller ? KILLER_KEY + 1 : move == secondKiller ? KILLER_KEY :
+                            colorHistory[move];
+                    if (mobility && key < KILLER_KEY) {
+                        // The number of replies takes the high bits of the key, the history value the low ones.
+                        long flips = Board.computeFlips(player, opponent, move);
+                        long replies = Board.generateMoves(opponent & ~flips, player | flips | (1L << move));
+                        key = ((64 - Long.bitCount(replies)) << 22) + Math.min(key >> 6, (1 << 22) - 1);
+                    }
+                }
+                int index = count++;
+                while (index > sorted && keys[index - 1] < key) {
+                    list[index] = list[index - 1];
+                    keys[index] = keys[index - 1];
+                    index--;
+                }
+                list[index] = move;
+                keys[index] = key;
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Remembering the move, which caused a cutoff: it becomes the first killer move of the ply, and its value
+     * in the history table grows with the square of the remaining depth.
+     *
+     * @param color The color of the player, who made the move.
+     * @param move  The move.
+     * @param depth The remaining depth of the position.
+     * @param ply   The distance from the root of the search.
+     */
+    private void rememberCutoff(Color color, int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] colorHistory = history[color.ordinal()];
+        colorHistory[move] += depth * depth;
+        if (colorHistory[move] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+
+    /**
+     * Forgetting the killer moves of all the plies.
+     */
+    private void clearKillers() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Board.PASS;
+            plyKillers[1] = Board.PASS;
+        }
+    }
+
+
+    /**
+     * Halving the values of the history table, so the recent cutoffs count more than the old ones.
+     */
+    private void ageHistory() {
+        for (int[] colorHistory : history) {
+            for (int square = 0; square < colorHistory.length; square++) {
+                colorHistory[square] >>= 1;
+            }
+        }
+    }
+
+
+    /**
+     * Set whether the killer moves, the history table and the mobility are used for ordering the moves
+     * (the best move from the transposition table and the static order are always used).
+     *
+     * @param moveOrdering True to use them; false for the static order only.
+     */
+    public void setMoveOrdering(boolean moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+
+    /**
+     * Get the best move of a transposition table entry, if it is one of the possible moves.
+     *
+     * @param entry The packed entry (or {@link TranspositionTable#MISSING}).
+     * @param moves The mask of the possible moves.
+     * @return The mask of the best move, or 0.
+     */
+    private static long hashMoveMask(long entry, long moves) {
+        if (entry == TranspositionTable.MISSING) {
+            return 0;
+        }
+        int move = TranspositionTable.moveOf(entry);
+        return move == Board.PASS ? 0 : moves & (1L << move);
+    }
+
+
+    /**
+     * Scoring a position, where none of the players can move: a won game is better than any heuristic score.
+     *
+     * @param board The analysed board.
+     * @param color The color of the player to move.
+     * @return The score from the point of view of the player to move.
+     */
+    static int scoreFinalPosition(Board board, Color color) {
+        int difference = board.countDisks(color) - board.countDisks(color.opposite());
+        if (difference > 0) {
+            return SCORE_WIN + difference;
+        } else if (difference < 0) {
+            return -SCORE_WIN + difference;
+        }
+        return 0;
+    }
+
+
+    /**
+     * Get the transposition table of the engine.
+     *
+     * @return The transposition table.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+
+    /**
+     * Get the number of positions visited by the last search.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
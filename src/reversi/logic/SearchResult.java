@@ -0,0 +1,131 @@
+package reversi.logic;
+
+import reversi.object.Board;
+
+import java.awt.Point;
+
+
+/**
+ * Class of the result of a search: the best move found and how it was found.
+ */
+public class SearchResult {
+
+    /**
+     * The index of the best cell ({@link Board#PASS} if there are no possible moves).
+     */
+    private final int move;
+
+    /**
+     * The score of the best move from the point of view of the searching player.
+     */
+    private final int score;
+
+    /**
+     * The depth of the search (in plies).
+     */
+    private final int depth;
+
+    /**
+     * The number of positions visited by the search.
+     */
+    private final long nodes;
+
+    /**
+     * The time spent on the search (in milliseconds).
+     */
+    private final long timeMillis;
+
+    public SearchResult(int move, int score, int depth, long nodes, long timeMillis) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+
+    /**
+     * Get the best move.
+     *
+     * @return The index of the cell ({@link Board#PASS} if there are no possible moves).
+     */
+    public int getMove() {
+        return move;
+    }
+
+
+    /**
+     * Get the best move as a position on the board.
+     *
+     * @return The best position (or Point(-1;-1), if there are no possible positions).
+     */
+    public Point getPosition() {
+        if (move == Board.PASS) {
+            return new Point(-1, -1);
+        }
+        return Board.toPoint(move);
+    }
+
+
+    /**
+     * Get the score of the best move.
+     *
+     * @return The score from the point of view of the searching player.
+     */
+    public int getScore() {
+        return score;
+    }
+
+
+    /**
+     * Get the depth of the search.
+     *
+     * @return The depth in plies.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+
+    /**
+     * Get the number of visited positions.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+
+    /**
+     * Get the time spent on the search.
+     *
+     * @return The time in milliseconds.
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+
+    /**
+     * Get the speed of the search.
+     *
+     * @return The number of nodes per second.
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+
+    /**
+     * How the result looks when printed.
+     *
+     * @return The view of the result.
+     */
+    @Override
+    public String toString() {
+        Point position = getPosition();
+        return "move " + position.x + " " + position.y + ", score " + score + ", depth " + depth +
+                ", nodes " + nodes + ", " + timeMillis + " ms";
+    }
+}
@@ -0,0 +1,51 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+
+/**
+ * Interface of the searchers of the robot moves.
+ */
+public interface Searcher extends AutoCloseable {
+
+    /**
+     * Searching the best move. The given board is not changed.
+     *
+     * @param board            The analysed board.
+     * @param color            The color of the player to move.
+     * @param maxDepth         The maximal depth of the search in plies (at least 1).
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     * @return The result of the search.
+     */
+    SearchResult search(Board board, Color color, int maxDepth, long timeBudgetMillis);
+
+
+    /**
+     * Set the condition, which stops the searches from outside (checked together with the time budget).
+     * A stopped search returns the best move found so far.
+     *
+     * @param stopCondition The condition (null for none).
+     */
+    void setStopCondition(BooleanSupplier stopCondition);
+
+
+    /**
+     * Set the listener, which gets the result of every finished iteration of the searches (the best move and
+     * the depth so far). The listener is called by the searching thread.
+     *
+     * @param progressListener The listener (null for none).
+     */
+    void setProgressListener(Consumer<SearchResult> progressListener);
+
+
+    /**
+     * Releasing the resources of the searcher (for example, its threads).
+     */
+    @Override
+    default void close() {
+    }
+}
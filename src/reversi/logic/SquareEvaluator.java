@@ -0,0 +1,74 @@
+package reversi.logic;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+
+/**
+ * Class of the simple evaluation function: every cell has a fixed weight (the corners are good, the cells next
+ * to them are bad), and every possible move (mobility) adds a bonus. The evaluator has no state.
+ */
+public class SquareEvaluator implements Evaluator {
+
+    /**
+     * The groups of the cells with equal weight.
+     */
+    private static final long[] WEIGHT_MASKS = {
+            0x8100000000000081L,
+            0x4281000000008142L,
+            0x0042000000004200L,
+            0x2400810000810024L,
+            0x1800008181000018L,
+            0x003C424242423C00L,
+            0x00003C3C3C3C0000L
+    };
+
+    /**
+     * The weights of the groups of {@link #WEIGHT_MASKS}: corners, C cells, X cells, A cells, B cells,
+     * the second ring and the centre.
+     */
+    private static final int[] WEIGHTS = {100, -20, -50, 10, 5, -2, -1};
+
+    /**
+     * The weight of a possible move (mobility).
+     */
+    static final int MOBILITY_WEIGHT = 8;
+
+
+    /**
+     * Evaluating a position: weighted cells and mobility.
+     *
+     * @param board The analysed board.
+     * @param color The color of the player to move.
+     * @return The score from the point of view of the player to move.
+     */
+    @Override
+    public int evaluate(Board board, Color color) {
+        long player = board.getDisks(color);
+        long opponent = board.getDisks(color.opposite());
+        int score = 0;
+        for (int group = 0; group < WEIGHT_MASKS.length; group++) {
+            score += WEIGHTS[group] * (Long.bitCount(player & WEIGHT_MASKS[group]) -
+                    Long.bitCount(opponent & WEIGHT_MASKS[group]));
+        }
+        int mobility = Long.bitCount(Board.generateMoves(player, opponent)) -
+                Long.bitCount(Board.generateMoves(opponent, player));
+        return score + MOBILITY_WEIGHT * mobility;
+    }
+
+
+    /**
+     * Get the weight of a cell.
+     *
+     * @param square The index of the cell.
+     * @return The weight.
+     */
+    static int squareWeight(int square) {
+        for (int group = 0; group < WEIGHT_MASKS.length; group++) {
+            if ((WEIGHT_MASKS[group] & (1L << square)) != 0) {
+                return WEIGHTS[group];
+            }
+        }
+        return 0;
+    }
+}
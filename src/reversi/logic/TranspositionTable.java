@@ -0,0 +1,341 @@
+package reversi.logic;
+
+import reversi.object.Board;
+
+import java.util.Arrays;
+
+
+/**
+ * Class of the transposition table: a fixed-size cache of the searched positions, kept in primitive arrays.
+ * The table is split into buckets of two entries. The first entry of a bucket keeps the deepest search
+ * (depth-preferred), the second one keeps the latest search (always-replace).
+ * An entry is packed into one long: the score (32 bits), the depth (8 bits), the bound type (2 bits)
+ * and the best move (7 bits).
+ * The table can be shared by several threads without locks: the key of an entry is stored combined (XOR)
+ * with its data, so an entry torn by two threads writing it at the same time does not match any key and
+ * is ignored.
+ * The counters of the lookups and the stores are only kept when the statistics are turned on (off by default).
+ * They are meant for a table used by one thread: every thread sharing the table would write them at every node,
+ * and these writes to one cache line would slow the threads down.
+ */
+public class TranspositionTable {
+
+    /**
+     * The bound type of an exact score.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The bound type of a score, which is at least the stored one (the search failed high).
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * The bound type of a score, which is at most the stored one (the search failed low).
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * The value returned by {@link #probe(long)} when the position is not in the table.
+     */
+    public static final long MISSING = 0;
+
+    /**
+     * The size of an entry in bytes (the key and the data).
+     */
+    private static final int ENTRY_BYTES = 16;
+
+    /**
+     * The keys of the entries (the hashes of the positions combined with the data).
+     */
+    private final long[] keys;
+
+    /**
+     * The packed data of the entries.
+     */
+    private final long[] data;
+
+    /**
+     * The mask of the bucket index.
+     */
+    private final int bucketMask;
+
+    /**
+     * Whether the counters are kept.
+     */
+    private final boolean statistics;
+
+    /**
+     * The number of lookups.
+     */
+    private long probes;
+
+    /**
+     * The number of lookups, which found the position.
+     */
+    private long hits;
+
+    /**
+     * The number of lookups, which found the bucket occupied by other positions.
+     */
+    private long collisions;
+
+    /**
+     * The number of entries, which were replaced by a different position.
+     */
+    private long overwrites;
+
+    /**
+     * Constructor for creating a table of the given size.
+     * The number of buckets is rounded down to a power of two.
+     *
+     * @param sizeMb The size of the table in megabytes.
+     */
+    public TranspositionTable(int sizeMb) {
+        this(sizeMb, false);
+    }
+
+
+    /**
+     * Constructor for creating a table of the given size, which can keep the counters.
+     * The number of buckets is rounded down to a power of two.
+     *
+     * @param sizeMb     The size of the table in megabytes.
+     * @param statistics Whether the counters are kept (only for a table used by one thread).
+     */
+    public TranspositionTable(int sizeMb, boolean statistics) {
+        this.statistics = statistics;
+        long entries = Math.max(2L, (long) Math.max(1, sizeMb) * 1024 * 1024 / ENTRY_BYTES);
+        int buckets = Integer.highestOneBit((int) Math.min(entries / 2, 1 << 29));
+        keys = new long[buckets * 2];
+        data = new long[buckets * 2];
+        bucketMask = buckets - 1;
+    }
+
+
+    /**
+     * Looking up the position in the table.
+     *
+     * @param key The hash of the position.
+     * @return The packed entry of the position, or {@link #MISSING}.
+     */
+    public long probe(long key) {
+        int index = bucketIndex(key);
+        long first = data[index];
+        long second = data[index + 1];
+        long entry = MISSING;
+        if (first != MISSING && (keys[index] ^ first) == key) {
+            entry = first;
+        } else if (second != MISSING && (keys[index + 1] ^ second) == key) {
+            entry = second;
+        }
+        if (statistics) {
+            count(entry, first, second);
+        }
+        return entry;
+    }
+
+
+    /**
+     * Method for counting a lookup.
+     *
+     * @param entry  The found entry (or {@link #MISSING}).
+     * @param first  The first entry of the bucket.
+     * @param second The second entry of the bucket.
+     */
+    private void count(long entry, long first, long second) {
+        probes++;
+        if (entry != MISSING) {
+            hits++;
+        } else if (first != MISSING || second != MISSING) {
+            collisions++;
+        }
+    }
+
+
+    /**
+     * Storing the result of a search of the position.
+     *
+     * @param key   The hash of the position.
+     * @param depth The depth of the search.
+     * @param bound The type of the score: {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     * @param move  The best move ({@link Board#PASS} if unknown).
+     * @param score The score of the position.
+     */
+    public void store(long key, int depth, int bound, int move, int score) {
+        long entry = pack(depth, bound, move, score);
+        int index = bucketIndex(key);
+        long first = data[index];
+        boolean sameKey = (keys[index] ^ first) == key;
+        if (first == MISSING || sameKey || depth >= depthOf(first)) {
+            if (statistics && first != MISSING && !sameKey) {
+                overwrites++;
+            }
+        } else {
+            index++;
+            long second = data[index];
+            if (statistics && second != MISSING && (keys[index] ^ second) != key) {
+                overwrites++;
+            }
+        }
+        keys[index] = key ^ entry;
+        data[index] = entry;
+    }
+
+
+    /**
+     * Removing all the entries and resetting the counters.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, MISSING);
+        probes = 0;
+        hits = 0;
+        collisions = 0;
+        overwrites = 0;
+    }
+
+
+    /**
+     * Get the index of the first entry of the bucket of the position.
+     *
+     * @param key The hash of the position.
+     * @return The index in the arrays.
+     */
+    private int bucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) << 1;
+    }
+
+
+    /**
+     * Packing an entry into a long.
+     *
+     * @param depth The depth of the search.
+     * @param bound The type of the score.
+     * @param move  The best move.
+     * @param score The score.
+     * @return The packed entry (never {@link #MISSING}, because the bound type is not 0).
+     */
+    static long pack(int depth, int bound, int move, int score) {
+        return (score & 0xFFFFFFFFL) | ((long) (depth & 0xFF) << 32) | ((long) bound << 40) |
+                ((long) (move + 1) << 42);
+    }
+
+
+    /**
+     * Get the score of a packed entry.
+     *
+     * @param entry The packed entry.
+     * @return The score.
+     */
+    public static int scoreOf(long entry) {
+        return (int) entry;
+    }
+
+
+    /**
+     * Get the depth of a packed entry.
+     *
+     * @param entry The packed entry.
+     * @return The depth of the search.
+     */
+    public static int depthOf(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+
+    /**
+     * Get the bound type of a packed entry.
+     *
+     * @param entry The packed entry.
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     */
+    public static int boundOf(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+
+    /**
+     * Get the best move of a packed entry.
+     *
+     * @param entry The packed entry.
+     * @return The index of the cell ({@link Board#PASS} if unknown).
+     */
+    public static int moveOf(long entry) {
+        return ((int) (entry >>> 42) & 0x7F) - 1;
+    }
+
+
+    /**
+     * Get the number of entries in the table.
+     *
+     * @return The capacity of the table.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+
+    /**
+     * Checks whether the counters are kept.
+     *
+     * @return True if the statistics are turned on; false otherwise.
+     */
+    public boolean isStatistics() {
+        return statistics;
+    }
+
+
+    /**
+     * Get the number of lookups (0 unless the statistics are turned on).
+     *
+     * @return The number of probes.
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+
+    /**
+     * Get the number of lookups, which found the position (0 unless the statistics are turned on).
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+
+    /**
+     * Get the number of lookups, which found the bucket occupied by other positions (0 unless the statistics
+     * are turned on).
+     *
+     * @return The number of collisions.
+     */
+    public long getCollisions() {
+        return collisions;
+    }
+
+
+    /**
+     * Get the number of entries, which were replaced by a different position (0 unless the statistics are
+     * turned on).
+     *
+     * @return The number of overwrites.
+     */
+    public long getOverwrites() {
+        return overwrites;
+    }
+
+
+    /**
+     * How the counters of the table look when printed.
+     *
+     * @return The view of the counters.
+     */
+    @Override
+    public String toString() {
+        return "entries " + getCapacity() + ", probes " + probes + ", hits " + hits +
+                ", collisions " + collisions + ", overwrites " + overwrites;
+    }
+}
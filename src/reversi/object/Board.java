@@ -6,27 +6,129 @@ import java.util.*;
 
 /**
  * Class of the gameboard.
+ * The position is stored as bitboards: one 64-bit mask per color, where the bit (row * 8 + column) is set
+ * when the cell holds a disk of that color.
+ * A board is not synchronized: it can be read by several threads at once, but while one thread changes it, no
+ * other thread may use it, so a board is copied (see {@link #Board(Board)}) before it is given to another
+ * thread, which may change it or read it meanwhile. Reading fills the cache of the possible moves; the cached
+ * moves are stored with a stamp, which binds them to the version of the board, so a thread never takes the moves
+ * cached by another thread for a different version.
  */
 public class Board {
 
     /**
-     * The state of cells (position: state).
+     * The cells of the first column (column 0) of the board.
      */
-    private final Map<Point, Cell> cells;
+    private static final long FIRST_COLUMN = 0x0101010101010101L;
 
     /**
-     * The directions of neighbours of a cell.
+     * The cells of the last column (column 7) of the board.
      */
-    private static final Point[] directions = {new Point(1, -1), new Point(1, 0),
-            new Point(1, 1), new Point(0, 1), new Point(-1, 1),
-            new Point(-1, 0), new Point(-1, -1), new Point(0, -1)};
+    private static final long LAST_COLUMN = 0x8080808080808080L;
+
+    /**
+     * The cells on the border of the board (first and last rows and columns).
+     */
+    private static final long EDGES = 0xFF818181818181FFL;
+
+    /**
+     * The two corners, which are valued higher by {@link #putNewDiskWithCounting(Color, Point)}: (0;0) and (7;7).
+     */
+    private static final long COUNTED_CORNERS = 1L | (1L << 63);
+
+    /**
+     * The shifts of a bit index, which move a disk to its neighbour in each of the 8 directions
+     * (the bit index grows by 8 per row and by 1 per column).
+     */
+    private static final int[] SHIFTS = {7, 8, 9, 1, -7, -8, -9, -1};
+
+    /**
+     * The masks, applied after a shift in the matching direction, to drop the disks wrapped over the side columns.
+     */
+    private static final long[] SHIFT_MASKS = {~LAST_COLUMN, -1L, ~FIRST_COLUMN, ~FIRST_COLUMN,
+            ~FIRST_COLUMN, -1L, ~LAST_COLUMN, ~LAST_COLUMN};
+
+    /**
+     * The random keys of the black disks on each cell (Zobrist hashing).
+     */
+    private static final long[] BLACK_KEYS = new long[64];
+
+    /**
+     * The random keys of the white disks on each cell (Zobrist hashing).
+     */
+    private static final long[] WHITE_KEYS = new long[64];
+
+    /**
+     * The keys of flipping a disk on each cell: the black key combined with the white key.
+     */
+    private static final long[] FLIP_KEYS = new long[64];
+
+    /**
+     * The key, which is added to the hash when the white player is to move.
+     */
+    private static final long WHITE_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x9E3779B97F4A7C15L);
+        for (int square = 0; square < 64; square++) {
+            BLACK_KEYS[square] = random.nextLong();
+            WHITE_KEYS[square] = random.nextLong();
+            FLIP_KEYS[square] = BLACK_KEYS[square] ^ WHITE_KEYS[square];
+        }
+        WHITE_TO_MOVE_KEY = random.nextLong();
+    }
+
+    /**
+     * The index of the move, used when a player cannot put any disk and passes the turn.
+     */
+    public static final int PASS = -1;
+
+    /**
+     * The disks of the black player.
+     */
+    private long black;
+
+    /**
+     * The disks of the white player.
+     */
+    private long white;
+
+    /**
+     * The Zobrist hash of the disks on the board, updated with every change of a cell.
+     */
+    private long hash;
+
+    /**
+     * The version of the disks on the board, increased with every change of the disks.
+     */
+    private long version;
+
+    /**
+     * The cached possible moves of the black player.
+     */
+    private long blackMoves;
+
+    /**
+     * The stamp of {@link #blackMoves}: the version of the board, for which they were generated, combined with
+     * their hash (see {@link #stamp(long, long)}); 0 if never generated.
+     */
+    private long blackMovesStamp;
+
+    /**
+     * The cached possible moves of the white player.
+     */
+    private long whiteMoves;
+
+    /**
+     * The stamp of {@link #whiteMoves} (see {@link #blackMovesStamp}).
+     */
+    private long whiteMovesStamp;
 
 
     /**
      * Constructor for creating the starting board (default).
      */
     public Board() {
-        cells = new HashMap<>(64);
         fillStartBoard();
     }
 
@@ -36,7 +138,25 @@ public class Board {
      * @param cells The cells of the board.
      */
     public Board(Map<Point, Cell> cells) {
-        this.cells = new HashMap<>(cells);
+        for (Map.Entry<Point, Cell> entry : cells.entrySet()) {
+            updateCell(entry.getValue(), entry.getKey());
+        }
+    }
+
+    /**
+     * Constructor for creating a copy of the given board.
+     *
+     * @param other The copied board.
+     */
+    public Board(Board other) {
+        this.black = other.black;
+        this.white = other.white;
+        this.hash = other.hash;
+        this.version = other.version;
+        this.blackMoves = other.blackMoves;
+        this.blackMovesStamp = other.blackMovesStamp;
+        this.whiteMoves = other.whiteMoves;
+        this.whiteMovesStamp = other.whiteMovesStamp;
     }
 
 
@@ -44,22 +164,10 @@ public class Board {
      * Method for filling the starting board: 60 empty cells, 2 black disks and 2 white disks in the middle.
      */
     private void fillStartBoard() {
-        Point point = new Point();
-        for (point.x = 0; point.x < 8; point.x++) {
-            for (point.y = 0; point.y < 8; point.y++) {
-                if (point.x == 3 && point.y == 3) {
-                    cells.put(new Point(point), Cell.SECOND);
-                } else if (point.x == 3 && point.y == 4) {
-                    cells.put(new Point(point), Cell.FIRST);
-                } else if (point.x == 4 && point.y == 3) {
-                    cells.put(new Point(point), Cell.FIRST);
-                } else if (point.x == 4 && point.y == 4) {
-                    cells.put(new Point(point), Cell.SECOND);
-                } else {
-                    cells.put(new Point(point), Cell.EMPTY);
-                }
-            }
-        }
+        black = bit(3, 4) | bit(4, 3);
+        white = bit(3, 3) | bit(4, 4);
+        hash = BLACK_KEYS[toSquare(3, 4)] ^ BLACK_KEYS[toSquare(4, 3)] ^
+                WHITE_KEYS[toSquare(3, 3)] ^ WHITE_KEYS[toSquare(4, 4)];
     }
 
 
@@ -69,26 +177,39 @@ public class Board {
      * @return The cells of the board.
      */
     public Map<Point, Cell> getCells() {
-        return new HashMap<>(cells);
+        Map<Point, Cell> cells = new HashMap<>(64);
+        for (int square = 0; square < 64; square++) {
+            cells.put(toPoint(square), getCell(square));
+        }
+        return cells;
     }
 
 
     /**
-     * Checks if a cell has a neighbour in the given direction with some specific colour.
+     * Get the state of a single cell.
      *
-     * @param current   The position of the cell.
-     * @param direction One of the directions.
-     * @param color     The needed color of a researched neighbour.
-     * @return True or false.
+     * @param square The index of the cell (row * 8 + column).
+     * @return The state of the cell.
      */
-    private boolean isExistingNeighbour(Point current, Point direction, Color color) {
-        Point neighbour = new Point(current.x + direction.x, current.y + direction.y);
-        if (neighbour.x >= 0 && neighbour.x < 8 && neighbour.y >= 0 && neighbour.y < 8) {
-            if (cells.get(neighbour).getColor() == color) {
-                return true;
-            }
+    public Cell getCell(int square) {
+        long mask = 1L << square;
+        if ((black & mask) != 0) {
+            return Cell.FIRST;
+        } else if ((white & mask) != 0) {
+            return Cell.SECOND;
         }
-        return false;
+        return Cell.EMPTY;
+    }
+
+
+    /**
+     * Get the disks of the given color as a bitboard.
+     *
+     * @param color The color of the disks.
+     * @return The mask of the disks (bit row * 8 + column).
+     */
+    public long getDisks(Color color) {
+        return color == Color.BLACK ? black : white;
     }
 
 
@@ -98,12 +219,17 @@ public class Board {
      * @return True or false;
      */
     public boolean isBoardFull() {
-        for (Point position : cells.keySet()) {
-            if (!cells.get(position).hasDisk()) {
-                return false;
-            }
-        }
-        return true;
+        return (black | white) == -1L;
+    }
+
+
+    /**
+     * Get the number of empty cells.
+     *
+     * @return The number of cells without a disk.
+     */
+    public int countEmpties() {
+        return 64 - Long.bitCount(black | white);
     }
 
 
@@ -114,37 +240,112 @@ public class Board {
      * @return A set of possible positions of the moves.
      */
     public Set<Point> getPossibleMoves(Color color) {
+        long moves = getPossibleMovesMask(color);
         Set<Point> possibleMoves = new HashSet<>();
-        Point explorer;
-        int countEnemies;
-        for (Point current : cells.keySet()) {
-            if (cells.get(current) == Cell.EMPTY) {
-                for (Point direction : directions) {
-                    explorer = current;
-                    countEnemies = 0;
-                    while (isExistingNeighbour(explorer, direction, color.opposite())) {
-                        countEnemies += 1;
-                        explorer = new Point(explorer.x + direction.x, explorer.y + direction.y);
-                    }
-                    if (isExistingNeighbour(explorer, direction, color) && countEnemies > 0) {
-                        possibleMoves.add(current);
-                        break;
-                    }
-                }
-            }
+        while (moves != 0) {
+            possibleMoves.add(toPoint(Long.numberOfTrailingZeros(moves)));
+            moves &= moves - 1;
         }
         return possibleMoves;
     }
 
 
+    /**
+     * Get the possible moves of a player with a specified color as a bitboard.
+     * The moves of each color are cached until the disks change, so repeated questions about the same
+     * position cost no generation.
+     *
+     * @param color The analysed color.
+     * @return The mask of the cells, where a disk can be put.
+     */
+    public long getPossibleMovesMask(Color color) {
+        if (color == Color.BLACK) {
+            long moves = blackMoves;
+            if (blackMovesStamp != stamp(version, moves)) {
+                moves = generateMoves(black, white);
+                blackMoves = moves;
+                blackMovesStamp = stamp(version, moves);
+            }
+            return moves;
+        }
+        long moves = whiteMoves;
+        if (whiteMovesStamp != stamp(version, moves)) {
+            moves = generateMoves(white, black);
+            whiteMoves = moves;
+            whiteMovesStamp = stamp(version, moves);
+        }
+        return moves;
+    }
+
+
+    /**
+     * Get the stamp of the cached moves: the version of the board combined with a hash of the moves, so the moves
+     * and the stamp written by two threads for different versions do not match (like the entries of a
+     * transposition table, which are stored combined with their keys).
+     *
+     * @param version The version of the board.
+     * @param moves   The mask of the moves.
+     * @return The stamp (never 0 for no moves, so the empty cache does not match).
+     */
+    private static long stamp(long version, long moves) {
+        long hash = (moves ^ (moves >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (version + 1) * 0x9E3779B97F4A7C15L ^ hash ^ (hash >>> 33);
+    }
+
+
+    /**
+     * Checks whether a player can put a disk on the given cell.
+     *
+     * @param color  The color of the player.
+     * @param square The index of the cell.
+     * @return True if the move is possible; false otherwise.
+     */
+    public boolean isPossibleMove(Color color, int square) {
+        return (getPossibleMovesMask(color) & (1L << square)) != 0;
+    }
+
+
+    /**
+     * Get the disks, which would be flipped if the player put a disk on the given cell.
+     *
+     * @param color  The color of the player.
+     * @param square The index of the cell.
+     * @return The mask of the disks to flip (empty if the move is not possible).
+     */
+    public long getFlips(Color color, int square) {
+        return color == Color.BLACK ? computeFlips(black, white, square) : computeFlips(white, black, square);
+    }
+
+
     /**
      * Method for updating the state of the cell.
+     * The board does not keep the hints: a cell set to {@link Cell#POSSIBLE} becomes empty (the hints are drawn by
+     * {@link TerminalRenderer}).
      *
      * @param cell     The needed state of the cell.
      * @param position The position of the cell.
      */
     public void updateCell(Cell cell, Point position) {
-        cells.put(position, cell);
+        int square = toSquare(position.x, position.y);
+        long mask = 1L << square;
+        if ((black & mask) != 0) {
+            hash ^= BLACK_KEYS[square];
+        } else if ((white & mask) != 0) {
+            hash ^= WHITE_KEYS[square];
+        }
+        if (((black | white) & mask) != 0 || cell == Cell.FIRST || cell == Cell.SECOND) {
+            version++;
+        }
+        black &= ~mask;
+        white &= ~mask;
+        if (cell == Cell.FIRST) {
+            black |= mask;
+            hash ^= BLACK_KEYS[square];
+        } else if (cell == Cell.SECOND) {
+            white |= mask;
+            hash ^= WHITE_KEYS[square];
+        }
     }
 
 
@@ -170,21 +371,7 @@ public class Board {
      * @param position The position, where to put the disk.
      */
     public void putNewDisk(Color color, Point position) {
-        changeColorOfCellTo(color, position);
-        Point explorer;
-        for (Point direction : directions) {
-            explorer = position;
-            while (isExistingNeighbour(explorer, direction, color.opposite())) {
-                explorer = new Point(explorer.x + direction.x, explorer.y + direction.y);
-            }
-            if (isExistingNeighbour(explorer, direction, color)) {
-                explorer = position;
-                while (isExistingNeighbour(explorer, direction, color.opposite())) {
-                    explorer = new Point(explorer.x + direction.x, explorer.y + direction.y);
-                    changeColorOfCellTo(color, explorer);
-                }
-            }
-        }
+        putDiskAndFlip(color, toSquare(position.x, position.y));
     }
 
 
@@ -197,33 +384,238 @@ public class Board {
      * @return The value of putting this specific disk on the board.
      */
     public double putNewDiskWithCounting(Color color, Point position) {
-        double counter = 0;
-        changeColorOfCellTo(color, position);
-        if ((position.x == 0 && position.y == 0) || (position.x == 7 && position.y == 7)) {
-            counter += 0.8;
-        } else if (position.x == 0 || position.y == 0 || position.x == 7 || position.y == 7) {
-            counter += 0.4;
+        int square = toSquare(position.x, position.y);
+        return countMoveValue(square, putDiskAndFlip(color, square));
+    }
+
+
+    /**
+     * Putting the disk on the given cell and flipping the captured disks.
+     *
+     * @param color  The color of the disk.
+     * @param square The index of the cell.
+     * @return The mask of the flipped disks.
+     */
+    private long putDiskAndFlip(Color color, int square) {
+        long flips = getFlips(color, square);
+        changeColorOfCellTo(color, toPoint(square));
+        if (color == Color.BLACK) {
+            black |= flips;
+            white &= ~flips;
+        } else {
+            white |= flips;
+            black &= ~flips;
         }
-        Point explorer;
-        for (Point direction : directions) {
-            explorer = position;
-            while (isExistingNeighbour(explorer, direction, color.opposite())) {
-                explorer = new Point(explorer.x + direction.x, explorer.y + direction.y);
-            }
-            if (isExistingNeighbour(explorer, direction, color)) {
-                explorer = position;
-                while (isExistingNeighbour(explorer, direction, color.opposite())) {
-                    explorer = new Point(explorer.x + direction.x, explorer.y + direction.y);
-                    changeColorOfCellTo(color, explorer);
-                    if (explorer.x == 0 || explorer.y == 0 || explorer.x == 7 || explorer.y == 7) {
-                        counter += 2;
-                    } else {
-                        counter += 1;
-                    }
-                }
-            }
+        hash ^= flipKeys(flips);
+        version++;
+        return flips;
+    }
+
+
+    /**
+     * Making a move in place: putting the disk and flipping the captured disks.
+     * The record is filled with everything needed by {@link #unmakeMove(UndoRecord)} to take the move back.
+     *
+     * @param color  The color of the disk.
+     * @param square The index of the cell ({@link #PASS} for passing the turn).
+     * @param undo   The record to fill.
+     * @return The mask of the flipped disks.
+     */
+    public long makeMove(Color color, int square, UndoRecord undo) {
+        undo.color = color;
+        undo.square = square;
+        undo.hash = hash;
+        if (square == PASS) {
+            undo.flips = 0;
+            return 0;
         }
-        return counter;
+        long mask = 1L << square;
+        long flips;
+        if (color == Color.BLACK) {
+            flips = computeFlips(black, white, square);
+            black |= mask | flips;
+            white ^= flips;
+            hash ^= BLACK_KEYS[square];
+        } else {
+            flips = computeFlips(white, black, square);
+            white |= mask | flips;
+            black ^= flips;
+            hash ^= WHITE_KEYS[square];
+        }
+        hash ^= flipKeys(flips);
+        version++;
+        undo.flips = flips;
+        return flips;
+    }
+
+
+    /**
+     * Taking back the move, made by {@link #makeMove(Color, int, UndoRecord)}.
+     *
+     * @param undo The record of the move.
+     */
+    public void unmakeMove(UndoRecord undo) {
+        if (undo.square == PASS) {
+            return;
+        }
+        long mask = 1L << undo.square;
+        if (undo.color == Color.BLACK) {
+            black &= ~(mask | undo.flips);
+            white |= undo.flips;
+        } else {
+            white &= ~(mask | undo.flips);
+            black |= undo.flips;
+        }
+        hash = undo.hash;
+        version++;
+    }
+
+
+    /**
+     * Making a move again from its recorded delta, without looking for the flipped disks.
+     *
+     * @param color  The color of the disk.
+     * @param square The index of the cell.
+     * @param flips  The mask of the disks flipped by the move.
+     */
+    public void applyMove(Color color, int square, long flips) {
+        long mask = 1L << square;
+        if (color == Color.BLACK) {
+            black |= mask | flips;
+            white &= ~flips;
+            hash ^= BLACK_KEYS[square];
+        } else {
+            white |= mask | flips;
+            black &= ~flips;
+            hash ^= WHITE_KEYS[square];
+        }
+        hash ^= flipKeys(flips);
+        version++;
+    }
+
+
+    /**
+     * Taking back a move by its recorded delta (the move must be the last one made on the board).
+     *
+     * @param color  The color of the disk.
+     * @param square The index of the cell.
+     * @param flips  The mask of the disks flipped by the move.
+     */
+    public void revertMove(Color color, int square, long flips) {
+        long mask = 1L << square;
+        if (color == Color.BLACK) {
+            black &= ~(mask | flips);
+            white |= flips;
+            hash ^= BLACK_KEYS[square];
+        } else {
+            white &= ~(mask | flips);
+            black |= flips;
+            hash ^= WHITE_KEYS[square];
+        }
+        hash ^= flipKeys(flips);
+        version++;
+    }
+
+
+    /**
+     * Combining the flip keys of all the disks of the mask.
+     *
+     * @param flips The mask of the flipped disks.
+     * @return The change of the hash.
+     */
+    private static long flipKeys(long flips) {
+        return diskKeys(flips, FLIP_KEYS);
+    }
+
+
+    /**
+     * Combining the keys of all the cells of the mask.
+     *
+     * @param mask The mask of the cells.
+     * @param keys The keys of the cells.
+     * @return The combined keys.
+     */
+    private static long diskKeys(long mask, long[] keys) {
+        long key = 0;
+        while (mask != 0) {
+            key ^= keys[Long.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return key;
+    }
+
+
+    /**
+     * Setting all the disks of the board at once.
+     *
+     * @param black The black disks.
+     * @param white The white disks (no cell may hold both colors).
+     */
+    public void setDisks(long black, long white) {
+        this.black = black;
+        this.white = white;
+        hash = diskKeys(black, BLACK_KEYS) ^ diskKeys(white, WHITE_KEYS);
+        version++;
+    }
+
+
+    /**
+     * Get the Zobrist hash of the disks on the board.
+     *
+     * @return The hash of the position (without the player to move).
+     */
+    public long getHash() {
+        return hash;
+    }
+
+
+    /**
+     * Get the Zobrist hash of the position with the given player to move.
+     *
+     * @param color The color of the player to move.
+     * @return The hash of the position.
+     */
+    public long getHash(Color color) {
+        return color == Color.WHITE ? hash ^ WHITE_TO_MOVE_KEY : hash;
+    }
+
+
+    /**
+     * Get the Zobrist hash of the position mapped by a symmetry, with the given player to move.
+     *
+     * @param color    The color of the player to move.
+     * @param symmetry The symmetry (see {@link Symmetry}).
+     * @return The hash of the mapped position.
+     */
+    public long getHash(Color color, int symmetry) {
+        if (symmetry == Symmetry.IDENTITY) {
+            return getHash(color);
+        }
+        long key = diskKeys(Symmetry.transform(black, symmetry), BLACK_KEYS) ^
+                diskKeys(Symmetry.transform(white, symmetry), WHITE_KEYS);
+        return color == Color.WHITE ? key ^ WHITE_TO_MOVE_KEY : key;
+    }
+
+
+    /**
+     * Get the symmetry, which maps the position to its canonical form (see
+     * {@link Symmetry#canonicalSymmetry(long, long)}).
+     *
+     * @return The symmetry.
+     */
+    public int getCanonicalSymmetry() {
+        return Symmetry.canonicalSymmetry(black, white);
+    }
+
+
+    /**
+     * Get the Zobrist hash of the canonical form of the position, the same for all the symmetric positions.
+     *
+     * @param color The color of the player to move.
+     * @return The hash of the canonical position.
+     */
+    public long getCanonicalHash(Color color) {
+        return getHash(color, getCanonicalSymmetry());
     }
 
 
@@ -234,15 +626,145 @@ public class Board {
      * @return The number of disks.
      */
     public int countDisks(Color color) {
-        int numberOfDisks = 0;
-        for (Point current : cells.keySet()) {
-            if (cells.get(current) == Cell.FIRST && color == Color.BLACK) {
-                numberOfDisks += 1;
-            } else if (cells.get(current) == Cell.SECOND && color == Color.WHITE) {
-                numberOfDisks += 1;
+        return Long.bitCount(getDisks(color));
+    }
+
+
+    /**
+     * Counting the value of a move the same way as {@link #putNewDiskWithCounting(Color, Point)}:
+     * 0.8 for the corners (0;0) and (7;7), 0.4 for the other border cells,
+     * 2 per flipped disk on the border and 1 per other flipped disk.
+     *
+     * @param square The index of the cell, where the disk is put.
+     * @param flips  The mask of the flipped disks.
+     * @return The value of the move.
+     */
+    public static double countMoveValue(int square, long flips) {
+        double counter = 0;
+        long mask = 1L << square;
+        if ((mask & COUNTED_CORNERS) != 0) {
+            counter += 0.8;
+        } else if ((mask & EDGES) != 0) {
+            counter += 0.4;
+        }
+        return counter + 2 * Long.bitCount(flips & EDGES) + Long.bitCount(flips & ~EDGES);
+    }
+
+
+    /**
+     * Generating the possible moves of a player.
+     *
+     * @param player   The disks of the player, who makes the move.
+     * @param opponent The disks of the opponent.
+     * @return The mask of the empty cells, where the player can put a disk.
+     */
+    public static long generateMoves(long player, long opponent) {
+        long inner = opponent & ~(FIRST_COLUMN | LAST_COLUMN);
+        long moves = movesInDirections(player, inner, 1) | movesInDirections(player, opponent, 8) |
+                movesInDirections(player, inner, 7) | movesInDirections(player, inner, 9);
+        return moves & ~(player | opponent);
+    }
+
+
+    /**
+     * Generating the cells behind the lines of the opponent's disks, which start next to a disk of the player,
+     * in the two opposite directions of the given shift.
+     * The opponent's disks on the side columns are left out of the mask for the directions, which cross
+     * the columns, so the lines do not wrap around the board.
+     *
+     * @param player   The disks of the player.
+     * @param opponent The disks of the opponent, which can be in the middle of a line.
+     * @param amount   The shift of a bit index to the neighbour (1, 7, 8 or 9).
+     * @return The mask of the cells after the lines (not necessarily empty).
+     */
+    private static long movesInDirections(long player, long opponent, int amount) {
+        long up = opponent & (player << amount);
+        up |= opponent & (up << amount);
+        up |= opponent & (up << amount);
+        up |= opponent & (up << amount);
+        up |= opponent & (up << amount);
+        up |= opponent & (up << amount);
+        long down = opponent & (player >>> amount);
+        down |= opponent & (down >>> amount);
+        down |= opponent & (down >>> amount);
+        down |= opponent & (down >>> amount);
+        down |= opponent & (down >>> amount);
+        down |= opponent & (down >>> amount);
+        return (up << amount) | (down >>> amount);
+    }
+
+
+    /**
+     * Computing the disks, which are captured when the player puts a disk on the given cell.
+     *
+     * @param player   The disks of the player, who makes the move.
+     * @param opponent The disks of the opponent.
+     * @param square   The index of the cell, where the disk is put.
+     * @return The mask of the captured disks (empty if the move is not possible).
+     */
+    public static long computeFlips(long player, long opponent, int square) {
+        long flips = 0;
+        long start = 1L << square;
+        for (int direction = 0; direction < 8; direction++) {
+            long line = 0;
+            long explorer = shift(start, direction);
+            while ((explorer & opponent) != 0) {
+                line |= explorer;
+                explorer = shift(explorer, direction);
+            }
+            if ((explorer & player) != 0) {
+                flips |= line;
             }
         }
-        return numberOfDisks;
+        return flips;
+    }
+
+
+    /**
+     * Moving all the disks of the mask to their neighbours in the given direction.
+     *
+     * @param disks     The mask of the disks.
+     * @param direction One of the directions (index in {@link #SHIFTS}).
+     * @return The shifted mask.
+     */
+    private static long shift(long disks, int direction) {
+        int amount = SHIFTS[direction];
+        return (amount > 0 ? disks << amount : disks >>> -amount) & SHIFT_MASKS[direction];
+    }
+
+
+    /**
+     * Get the index of the cell in the bitboards.
+     *
+     * @param row    The row of the cell.
+     * @param column The column of the cell.
+     * @return The index of the cell (row * 8 + column).
+     */
+    public static int toSquare(int row, int column) {
+        return row * 8 + column;
+    }
+
+
+    /**
+     * Get the position of the cell with the given index.
+     *
+     * @param square The index of the cell.
+     * @return The position of the cell (row; column).
+     */
+    public static Point toPoint(int square) {
+        return new Point(square >>> 3, square & 7);
+    }
+
+
+    /**
+     * Get the mask of a single cell.
+     *
+     * @param row    The row of the cell.
+     * @param column The column of the cell.
+     * @return The mask with only this cell set.
+     */
+    private static long bit(int row, int column) {
+        return 1L << toSquare(row, column);
     }
 
 
@@ -253,24 +775,6 @@ public class Board {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(System.lineSeparator());
-        sb.append("rows");
-        sb.append(System.lineSeparator());
-        for (int row = 0; row < 8; row++) {
-            sb.append("     -------------------------------------------------");
-            sb.append(System.lineSeparator());
-            sb.append(row + "    ");
-            for (int column = 0; column < 8; column++) {
-                sb.append("|  " + cells.get(new Point(row, column)) + "  ");
-            }
-            sb.append("|");
-            sb.append(System.lineSeparator());
-        }
-        sb.append("     -------------------------------------------------");
-        sb.append(System.lineSeparator());
-        sb.append("        0     1     2     3     4     5     6     7     columns");
-        sb.append(System.lineSeparator());
-        return sb.toString();
+        return TerminalRenderer.appendBoard(new StringBuilder(1024), black, white, 0).toString();
     }
 }
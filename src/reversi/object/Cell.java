@@ -42,6 +42,16 @@ public enum Cell {
     }
 
 
+    /**
+     * Get the symbol of the cell, when the board is printed.
+     *
+     * @return The symbol.
+     */
+    public char symbol() {
+        return symbol;
+    }
+
+
     /**
      * How the board looks when printed.
      *
@@ -0,0 +1,164 @@
+package reversi.object;
+
+
+/**
+ * Class of the 8 symmetries of the board (the rotations and the reflections), applied to the bitboards and to
+ * the indexes of the cells.
+ * A symmetry is a number 0-7: bit 0 mirrors the columns, bit 1 mirrors the rows, bit 2 transposes the board
+ * (swaps the rows and the columns); they are applied in this order.
+ * The symmetric positions have the same value and the same best moves (mapped by the symmetry), so a position
+ * can be stored in its canonical form (see {@link #canonicalSymmetry(long, long)}) once for all of them.
+ */
+public final class Symmetry {
+
+    /**
+     * The number of symmetries of the board.
+     */
+    public static final int COUNT = 8;
+
+    /**
+     * The symmetry, which changes nothing.
+     */
+    public static final int IDENTITY = 0;
+
+    /**
+     * The bit of the symmetry, which mirrors the columns.
+     */
+    public static final int MIRROR_COLUMNS = 1;
+
+    /**
+     * The bit of the symmetry, which mirrors the rows.
+     */
+    public static final int MIRROR_ROWS = 2;
+
+    /**
+     * The bit of the symmetry, which transposes the board.
+     */
+    public static final int TRANSPOSE = 4;
+
+    private Symmetry() {
+    }
+
+
+    /**
+     * Mapping a bitboard by a symmetry.
+     *
+     * @param bits     The bitboard.
+     * @param symmetry The symmetry.
+     * @return The mapped bitboard.
+     */
+    public static long transform(long bits, int symmetry) {
+        if ((symmetry & MIRROR_COLUMNS) != 0) {
+            bits = mirrorColumns(bits);
+        }
+        if ((symmetry & MIRROR_ROWS) != 0) {
+            bits = Long.reverseBytes(bits);
+        }
+        if ((symmetry & TRANSPOSE) != 0) {
+            bits = transpose(bits);
+        }
+        return bits;
+    }
+
+
+    /**
+     * Mapping a cell by a symmetry.
+     *
+     * @param square   The index of the cell ({@link Board#PASS} is kept).
+     * @param symmetry The symmetry.
+     * @return The index of the mapped cell.
+     */
+    public static int transformSquare(int square, int symmetry) {
+        if (square == Board.PASS) {
+            return square;
+        }
+        int row = square >> 3;
+        int column = square & 7;
+        if ((symmetry & MIRROR_COLUMNS) != 0) {
+            column = 7 - column;
+        }
+        if ((symmetry & MIRROR_ROWS) != 0) {
+            row = 7 - row;
+        }
+        if ((symmetry & TRANSPOSE) != 0) {
+            int swap = row;
+            row = column;
+            column = swap;
+        }
+        return row * 8 + column;
+    }
+
+
+    /**
+     * Get the symmetry, which reverts the given one.
+     * The mirrors are their own inverses; after the transposition the mirror of the rows becomes the mirror of
+     * the columns and the other way round.
+     *
+     * @param symmetry The symmetry.
+     * @return The inverse symmetry.
+     */
+    public static int inverse(int symmetry) {
+        if ((symmetry & TRANSPOSE) == 0) {
+            return symmetry;
+        }
+        return TRANSPOSE | (symmetry & MIRROR_COLUMNS) << 1 | (symmetry & MIRROR_ROWS) >> 1;
+    }
+
+
+    /**
+     * Finding the symmetry, which maps the position to its canonical form: the smallest pair of the mapped
+     * bitboards (the black disks compared first). All the symmetric positions have the same canonical form.
+     *
+     * @param black The black disks.
+     * @param white The white disks.
+     * @return The symmetry (the smallest one, if several give the canonical form).
+     */
+    public static int canonicalSymmetry(long black, long white) {
+        int best = IDENTITY;
+        long bestBlack = black;
+        long bestWhite = white;
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            long mappedBlack = transform(black, symmetry);
+            if (mappedBlack > bestBlack) {
+                continue;
+            }
+            long mappedWhite = transform(white, symmetry);
+            if (mappedBlack < bestBlack || mappedWhite < bestWhite) {
+                best = symmetry;
+                bestBlack = mappedBlack;
+                bestWhite = mappedWhite;
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * Mirroring the columns of a bitboard: the bits of every byte (row) are reversed.
+     *
+     * @param bits The bitboard.
+     * @return The mirrored bitboard.
+     */
+    private static long mirrorColumns(long bits) {
+        bits = (bits >>> 1) & 0x5555555555555555L | (bits & 0x5555555555555555L) << 1;
+        bits = (bits >>> 2) & 0x3333333333333333L | (bits & 0x3333333333333333L) << 2;
+        return (bits >>> 4) & 0x0F0F0F0F0F0F0F0FL | (bits & 0x0F0F0F0F0F0F0F0FL) << 4;
+    }
+
+
+    /**
+     * Transposing a bitboard: the cell (row; column) goes to (column; row). The blocks of 4x4, 2x2 and 1x1 cells
+     * on both sides of the diagonal are swapped one after another.
+     *
+     * @param bits The bitboard.
+     * @return The transposed bitboard.
+     */
+    private static long transpose(long bits) {
+        long swap = 0x0F0F0F0F00000000L & (bits ^ (bits << 28));
+        bits ^= swap ^ (swap >>> 28);
+        swap = 0x3333000033330000L & (bits ^ (bits << 14));
+        bits ^= swap ^ (swap >>> 14);
+        swap = 0x5500550055005500L & (bits ^ (bits << 7));
+        return bits ^ swap ^ (swap >>> 7);
+    }
+}
@@ -0,0 +1,231 @@
+package reversi.object;
+
+import java.io.PrintStream;
+
+
+/**
+ * Class of the view of the board in the terminal, with the possible moves of a player shown as hints.
+ * The hints are only drawn, the board is not changed.
+ * Without ANSI escape codes the whole board is printed every time. With them the board is drawn once at the top
+ * of the screen, the lines below it scroll on their own (the rest of the output goes there), and then only the
+ * cells, which changed since the last drawing, are redrawn by moving the cursor to them.
+ * Every drawing is built in one reused buffer and written to the stream at once.
+ */
+public class TerminalRenderer {
+
+    /**
+     * The system property, which turns the ANSI escape codes on (true) or off (false); by default they are used
+     * when the game runs in a terminal.
+     */
+    public static final String ANSI_PROPERTY = "reversi.ansi";
+
+    /**
+     * The number of lines of the drawn board.
+     */
+    public static final int FRAME_LINES = 20;
+
+    /**
+     * The line of the screen with the cells of the first row (from 1).
+     */
+    private static final int FIRST_CELL_LINE = 4;
+
+    /**
+     * The column of the screen with the cells of the first column (from 1).
+     */
+    private static final int FIRST_CELL_COLUMN = 9;
+
+    /**
+     * The start of the ANSI escape codes.
+     */
+    private static final String ESCAPE = "\u001B";
+
+    /**
+     * The line between two rows of the board.
+     */
+    private static final String SEPARATOR = "     -------------------------------------------------";
+
+    /**
+     * The line with the numbers of the columns.
+     */
+    private static final String COLUMNS = "        0     1     2     3     4     5     6     7     columns";
+
+    /**
+     * The stream, to which the board is written.
+     */
+    private final PrintStream out;
+
+    /**
+     * Whether the ANSI escape codes are used.
+     */
+    private final boolean ansi;
+
+    /**
+     * The buffer of the drawing.
+     */
+    private final StringBuilder buffer = new StringBuilder(1024);
+
+    /**
+     * Whether the board is on the screen (with the ANSI escape codes), so only the changes have to be drawn.
+     */
+    private boolean drawn;
+
+    /**
+     * The black disks on the screen.
+     */
+    private long shownBlack;
+
+    /**
+     * The white disks on the screen.
+     */
+    private long shownWhite;
+
+    /**
+     * The hints on the screen.
+     */
+    private long shownHints;
+
+    public TerminalRenderer(PrintStream out, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
+    }
+
+
+    /**
+     * Creating the renderer of the standard output: the ANSI escape codes are used according to
+     * {@link #ANSI_PROPERTY}, or if the game runs in a terminal, which understands them.
+     *
+     * @return The new renderer.
+     */
+    public static TerminalRenderer forConsole() {
+        String property = System.getProperty(ANSI_PROPERTY);
+        boolean ansi;
+        if (property != null) {
+            ansi = Boolean.parseBoolean(property);
+        } else {
+            String terminal = System.getenv("TERM");
+            ansi = System.console() != null && terminal != null && !terminal.equals("dumb");
+        }
+        return new TerminalRenderer(System.out, ansi);
+    }
+
+
+    /**
+     * Checks whether the ANSI escape codes are used.
+     *
+     * @return True if only the changed cells are redrawn; false if the whole board is printed every time.
+     */
+    public boolean isAnsi() {
+        return ansi;
+    }
+
+
+    /**
+     * Method for drawing the board with the hints.
+     *
+     * @param board The board (not changed).
+     * @param hints The cells marked as the possible moves (empty cells only).
+     */
+    public void render(Board board, long hints) {
+        long black = board.getDisks(Color.BLACK);
+        long white = board.getDisks(Color.WHITE);
+        hints &= ~(black | white);
+        buffer.setLength(0);
+        if (!ansi) {
+            appendBoard(buffer, black, white, hints);
+        } else if (!drawn) {
+            buffer.append(ESCAPE).append("[2J").append(ESCAPE).append("[H");
+            appendBoard(buffer, black, white, hints);
+            buffer.append(ESCAPE).append('[').append(FRAME_LINES + 1).append('r');
+            buffer.append(ESCAPE).append('[').append(FRAME_LINES + 1).append(";1H");
+            drawn = true;
+        } else {
+            long changed = (black ^ shownBlack) | (white ^ shownWhite) | (hints ^ shownHints);
+            if (changed == 0) {
+                return;
+            }
+            buffer.append(ESCAPE).append('7');
+            for (; changed != 0; changed &= changed - 1) {
+                int square = Long.numberOfTrailingZeros(changed);
+                buffer.append(ESCAPE).append('[').append(FIRST_CELL_LINE + 2 * (square >> 3)).append(';')
+                        .append(FIRST_CELL_COLUMN + 6 * (square & 7)).append('H');
+                buffer.append(symbol(black, white, hints, 1L << square));
+            }
+            buffer.append(ESCAPE).append('8');
+        }
+        shownBlack = black;
+        shownWhite = white;
+        shownHints = hints;
+        out.append(buffer);
+        out.flush();
+    }
+
+
+    /**
+     * Method for drawing the whole board again next time (e.g. when the screen was cleared).
+     */
+    public void invalidate() {
+        drawn = false;
+    }
+
+
+    /**
+     * Method for giving the whole screen back to the scrolling output (with the ANSI escape codes); the board
+     * is drawn again from scratch next time.
+     */
+    public void close() {
+        if (ansi && drawn) {
+            out.print(ESCAPE + "7" + ESCAPE + "[r" + ESCAPE + "8");
+            out.flush();
+        }
+        drawn = false;
+    }
+
+
+    /**
+     * Method for appending the printed board: the rows with their numbers, the cells between the separators and
+     * the numbers of the columns.
+     *
+     * @param sb    The buffer.
+     * @param black The black disks.
+     * @param white The white disks.
+     * @param hints The cells marked as the possible moves.
+     * @return The buffer.
+     */
+    public static StringBuilder appendBoard(StringBuilder sb, long black, long white, long hints) {
+        String newLine = System.lineSeparator();
+        sb.append(newLine).append("rows").append(newLine);
+        for (int row = 0; row < 8; row++) {
+            sb.append(SEPARATOR).append(newLine);
+            sb.append(row).append("    ");
+            for (int column = 0; column < 8; column++) {
+                sb.append("|  ").append(symbol(black, white, hints, 1L << Board.toSquare(row, column)))
+                        .append("  ");
+            }
+            sb.append('|').append(newLine);
+        }
+        sb.append(SEPARATOR).append(newLine);
+        sb.append(COLUMNS).append(newLine);
+        return sb;
+    }
+
+
+    /**
+     * Get the symbol of a cell.
+     *
+     * @param black The black disks.
+     * @param white The white disks.
+     * @param hints The cells marked as the possible moves.
+     * @param mask  The mask of the cell.
+     * @return The symbol of the disk, the hint or the empty cell.
+     */
+    private static char symbol(long black, long white, long hints, long mask) {
+        if ((black & mask) != 0) {
+            return Cell.FIRST.symbol();
+        } else if ((white & mask) != 0) {
+            return Cell.SECOND.symbol();
+        } else if ((hints & mask) != 0) {
+            return Cell.POSSIBLE.symbol();
+        }
+        return Cell.EMPTY.symbol();
+    }
+}
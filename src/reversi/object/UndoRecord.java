@@ -0,0 +1,59 @@
+package reversi.object;
+
+
+/**
+ * Class of a record, which keeps what is needed to take back a move made by {@link Board#makeMove}.
+ * The record is mutable, so the searching code can allocate one per ply and reuse it for every move.
+ */
+public class UndoRecord {
+
+    /**
+     * The color of the player, who made the move.
+     */
+    Color color;
+
+    /**
+     * The index of the cell, where the disk was put ({@link Board#PASS} if the player passed).
+     */
+    int square;
+
+    /**
+     * The mask of the disks, flipped by the move.
+     */
+    long flips;
+
+    /**
+     * The hash of the board before the move.
+     */
+    long hash;
+
+
+    /**
+     * Get the color of the player, who made the move.
+     *
+     * @return The color of the player.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+
+    /**
+     * Get the cell of the move.
+     *
+     * @return The index of the cell ({@link Board#PASS} if the player passed).
+     */
+    public int getSquare() {
+        return square;
+    }
+
+
+    /**
+     * Get the disks, flipped by the move.
+     *
+     * @return The mask of the flipped disks.
+     */
+    public long getFlips() {
+        return flips;
+    }
+}
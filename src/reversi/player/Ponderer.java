@@ -0,0 +1,234 @@
+package reversi.player;
+
+import reversi.logic.EndgameSolver;
+import reversi.logic.OpeningBook;
+import reversi.logic.SearchResult;
+import reversi.logic.Searcher;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * Class of the pondering of the robot: while the opponent thinks, the robot searches its answers to the
+ * expected moves of the opponent on the thread of the robot, with the same settings as its real moves, and keeps
+ * the results. The most likely move of the opponent (found by a shallow search) is answered first.
+ * When the opponent moves, an answer already found is played at once; if the answer to this move is being
+ * searched, the search is finished; otherwise the pondering is stopped, and the real search starts with the
+ * transposition table filled by it.
+ * The searcher and the solver of the robot are only used by one thread at a time: the pondering runs on the
+ * thread, which chooses the moves of the robot (see {@link RobotPlayer#chooseMoveAsync}), and always ends
+ * before {@link #takeResult(Board)} returns.
+ */
+public class Ponderer implements AutoCloseable {
+
+    /**
+     * The depth of the search, which orders the expected moves of the opponent.
+     */
+    private static final int PREDICTION_DEPTH = 4;
+
+    /**
+     * The robot.
+     */
+    private final RobotPlayer robot;
+
+    /**
+     * The searcher of the robot.
+     */
+    private final Searcher searcher;
+
+    /**
+     * The endgame solver of the robot.
+     */
+    private final EndgameSolver solver;
+
+    /**
+     * The opening book of the robot (null if there is none).
+     */
+    private final OpeningBook book;
+
+    /**
+     * The thread of the robot.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The found answers by the hash of the position (with the robot to move).
+     */
+    private final Map<Long, SearchResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * The current pondering (null if there is none).
+     */
+    private Future<?> task;
+
+    /**
+     * Whether the current pondering has to stop at once.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Whether the current pondering has to stop after the position being searched.
+     */
+    private boolean stopAfterCurrent;
+
+    /**
+     * The hash of the position being searched (0 if there is none).
+     */
+    private long currentHash;
+
+    public Ponderer(RobotPlayer robot, Searcher searcher, EndgameSolver solver, OpeningBook book,
+                    ExecutorService executor) {
+        this.robot = robot;
+        this.searcher = searcher;
+        this.solver = solver;
+        this.book = book;
+        this.executor = executor;
+    }
+
+
+    /**
+     * Starting to ponder the position with the opponent to move (the earlier pondering is stopped).
+     *
+     * @param board The board (not changed).
+     */
+    public void start(Board board) {
+        stop();
+        results.clear();
+        Board position = new Board(board);
+        synchronized (this) {
+            stopAfterCurrent = false;
+            currentHash = 0;
+        }
+        task = executor.submit(() -> ponder(position));
+    }
+
+
+    /**
+     * Getting the answer to the move of the opponent, which was just made; the pondering is stopped.
+     * Waits for the answer, if it is being searched.
+     *
+     * @param board The board with the robot to move.
+     * @return The answer, or null if it was not found by the pondering.
+     */
+    public SearchResult takeResult(Board board) {
+        long hash = board.getHash(robot.getColor());
+        synchronized (this) {
+            if (results.containsKey(hash)) {
+                cancelled = true;
+            } else if (currentHash == hash) {
+                stopAfterCurrent = true;
+            } else {
+                cancelled = true;
+            }
+        }
+        await();
+        SearchResult result = results.get(hash);
+        results.clear();
+        return result;
+    }
+
+
+    /**
+     * Stopping the pondering at once.
+     */
+    public void stop() {
+        cancelled = true;
+        await();
+    }
+
+
+    /**
+     * Method for waiting for the end of the current pondering.
+     */
+    private void await() {
+        if (task != null) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                System.out.println("The robot couldn't think ahead: " + e.getCause());
+            }
+            task = null;
+        }
+        cancelled = false;
+    }
+
+
+    /**
+     * Pondering the position: the searches of the robot are stopped, when the pondering is cancelled.
+     *
+     * @param board The board with the opponent to move.
+     */
+    private void ponder(Board board) {
+        searcher.setStopCondition(() -> cancelled);
+        solver.setStopCondition(() -> cancelled);
+        try {
+            ponderMoves(board);
+        } finally {
+            searcher.setStopCondition(null);
+            solver.setStopCondition(null);
+        }
+    }
+
+
+    /**
+     * Method for searching the answers to the moves of the opponent in the order of their likelihood.
+     *
+     * @param board The board with the opponent to move.
+     */
+    private void ponderMoves(Board board) {
+        Color opponent = robot.getColor().opposite();
+        long moves = board.getPossibleMovesMask(opponent);
+        if (moves == 0) {
+            return;
+        }
+        int predicted = searcher.search(board, opponent, PREDICTION_DEPTH, 0).getMove();
+        int[] order = new int[Long.bitCount(moves)];
+        int count = 0;
+        if (predicted != Board.PASS && (moves & (1L << predicted)) != 0) {
+            order[count++] = predicted;
+            moves &= ~(1L << predicted);
+        }
+        for (; moves != 0; moves &= moves - 1) {
+            order[count++] = Long.numberOfTrailingZeros(moves);
+        }
+        for (int move : order) {
+            Board child = new Board(board);
+            child.applyMove(opponent, move, child.getFlips(opponent, move));
+            if (child.getPossibleMovesMask(robot.getColor()) == 0) {
+                continue;
+            }
+            long hash = child.getHash(robot.getColor());
+            synchronized (this) {
+                if (cancelled || stopAfterCurrent) {
+                    return;
+                }
+                currentHash = hash;
+            }
+            SearchResult result = robot.chooseMove(child, searcher, solver, book);
+            synchronized (this) {
+                currentHash = 0;
+                if (cancelled) {
+                    return;
+                }
+                results.put(hash, result);
+            }
+        }
+    }
+
+
+    /**
+     * Stopping the pondering (the thread of the robot is not shut down).
+     */
+    @Override
+    public void close() {
+        stop();
+    }
+}
@@ -1,8 +1,26 @@
 package reversi.player;
 
+import reversi.logic.EndgameSolver;
+import reversi.logic.LazySmpSearch;
+import reversi.logic.MctsSearch;
+import reversi.logic.OpeningBook;
+import reversi.logic.ParallelSearchEngine;
+import reversi.logic.PatternEvaluator;
+import reversi.logic.SearchEngine;
+import reversi.logic.SearchResult;
+import reversi.logic.Searcher;
+import reversi.logic.TranspositionTable;
+import reversi.object.Board;
 import reversi.object.Color;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 
 /**
@@ -11,27 +29,510 @@ import java.util.Objects;
 public class RobotPlayer extends Player {
 
     /**
-     * The mode of the game: 1 - easy, 2 - hard.
+     * The depth of the search in the easy mode (in plies): the robot plays the move, which the evaluator of
+     * {@link SearchEngine} (the pattern evaluator) likes best.
      */
-    private int mode;
+    public static final int EASY_DEPTH = 1;
+
+    /**
+     * The depth of the search in the hard mode (in plies); the search stops earlier when the time budget runs out.
+     */
+    public static final int HARD_DEPTH = 60;
+
+    /**
+     * The time budget of a move in the hard mode (in milliseconds).
+     */
+    public static final long HARD_TIME_BUDGET_MILLIS = 150;
+
+    /**
+     * The time budget of a move in the Monte Carlo mode (in milliseconds).
+     */
+    public static final long MCTS_TIME_BUDGET_MILLIS = 1000;
+
+    /**
+     * The default hard deadline of a move (in milliseconds): the search is stopped then, whatever its budget.
+     */
+    public static final long DEFAULT_MOVE_DEADLINE_MILLIS = 10_000;
+
+    /**
+     * The system property with the path of the opening book of the hard mode.
+     */
+    public static final String BOOK_PROPERTY = "reversi.book";
+
+    /**
+     * The default path of the opening book of the hard mode.
+     */
+    public static final String DEFAULT_BOOK_PATH = "book.bin";
+
+    /**
+     * The system property with the number of threads of the search in the hard and Monte Carlo modes
+     * (default: all the processors).
+     */
+    public static final String THREADS_PROPERTY = "reversi.threads";
+
+    /**
+     * The system property, which chooses how several threads search in the hard mode: "lazysmp" (the default)
+     * for Lazy SMP or "split" for splitting the tree.
+     */
+    public static final String PARALLEL_PROPERTY = "reversi.parallel";
+
+    /**
+     * The system property with the largest number of empty cells, at which the hard robot solves the game
+     * exactly (default: {@link EndgameSolver#DEFAULT_EMPTIES}).
+     */
+    public static final String ENDGAME_PROPERTY = "reversi.endgame";
+
+    /**
+     * The divisor of the time budget of an endgame move, which gives the time of the win/loss/draw solve;
+     * the exact solve gets the time left after it.
+     */
+    private static final int WIN_LOSS_DRAW_SHARE = 2;
+
+    /**
+     * The depth of the search of the robot (in plies).
+     */
+    private final int searchDepth;
+
+    /**
+     * The size of the transposition table of the robot (in megabytes).
+     */
+    private int tableSizeMb = SearchEngine.DEFAULT_TABLE_SIZE_MB;
+
+    /**
+     * The time budget of a move (in milliseconds, 0 for no limit).
+     */
+    private long timeBudgetMillis;
+
+    /**
+     * The hard deadline of a move chosen by {@link #chooseMoveAsync} (in milliseconds, 0 for no deadline).
+     */
+    private long moveDeadlineMillis = DEFAULT_MOVE_DEADLINE_MILLIS;
+
+    /**
+     * The number of threads of the search.
+     */
+    private int threads = 1;
+
+    /**
+     * Whether several threads search with Lazy SMP (true) or by splitting the tree (false).
+     */
+    private boolean lazySmp = true;
+
+    /**
+     * The largest number of empty cells, at which the robot solves the game exactly (0 to never solve).
+     */
+    private int endgameEmpties;
+
+    /**
+     * The path of the opening book of the robot (null for no book).
+     */
+    private Path bookPath;
+
+    /**
+     * Whether the robot searches its answers while the opponent thinks (see {@link Ponderer}).
+     */
+    private boolean pondering;
+
+    /**
+     * Whether the robot searches by the Monte Carlo tree search (see {@link MctsSearch}).
+     */
+    private boolean mcts;
+
+    /**
+     * The largest number of playouts of a move of the Monte Carlo tree search (0 for the time budget only).
+     */
+    private long playoutBudget;
 
     public RobotPlayer(String mode, Color color) {
-        super(color);
-        if (Objects.equals(mode, "easy")) {
-            this.mode = 1;
-        } else if (Objects.equals(mode, "hard")) {
-            this.mode = 2;
+        this(Objects.equals(mode, "hard") ? HARD_DEPTH : EASY_DEPTH, color);
+        if (Objects.equals(mode, "hard")) {
+            timeBudgetMillis = HARD_TIME_BUDGET_MILLIS;
+            setEndgameEmpties(intProperty(ENDGAME_PROPERTY, EndgameSolver.DEFAULT_EMPTIES));
+            bookPath = Paths.get(System.getProperty(BOOK_PROPERTY, DEFAULT_BOOK_PATH));
+            pondering = true;
+            setThreads(intProperty(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+            lazySmp = !System.getProperty(PARALLEL_PROPERTY, "lazysmp").equalsIgnoreCase("split");
+        } else if (Objects.equals(mode, "mcts")) {
+            mcts = true;
+            timeBudgetMillis = MCTS_TIME_BUDGET_MILLIS;
+            setThreads(intProperty(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
         }
+    }
+
+    public RobotPlayer(int searchDepth, Color color) {
+        super(color);
+        this.searchDepth = Math.max(1, searchDepth);
         this.name = "Robot";
     }
 
 
     /**
-     * Get the mode of the player.
+     * Get the number of a setting of the robot from a system property.
+     *
+     * @param property     The name of the property.
+     * @param defaultValue The value, if the property is not set or is not a number.
+     * @return The value.
+     */
+    private static int intProperty(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Wrong number in " + property + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+
+    /**
+     * Get the depth of the search of the robot.
+     *
+     * @return The depth in plies.
+     */
+    public int getSearchDepth() {
+        return searchDepth;
+    }
+
+
+    /**
+     * Get the size of the transposition table of the robot.
      *
-     * @return 1 - easy, 2 - hard.
+     * @return The size in megabytes.
      */
-    public int getMode() {
-        return mode;
+    public int getTableSizeMb() {
+        return tableSizeMb;
+    }
+
+
+    /**
+     * Set the size of the transposition table of the robot.
+     *
+     * @param tableSizeMb The size in megabytes.
+     */
+    public void setTableSizeMb(int tableSizeMb) {
+        this.tableSizeMb = Math.max(1, tableSizeMb);
+    }
+
+
+    /**
+     * Get the time budget of a move of the robot.
+     *
+     * @return The time budget in milliseconds (0 for no limit).
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+
+    /**
+     * Set the time budget of a move of the robot.
+     *
+     * @param timeBudgetMillis The time budget in milliseconds (0 for no limit).
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = Math.max(0, timeBudgetMillis);
+    }
+
+
+    /**
+     * Get the hard deadline of a move of the robot.
+     *
+     * @return The deadline in milliseconds (0 for no deadline).
+     */
+    public long getMoveDeadlineMillis() {
+        return moveDeadlineMillis;
+    }
+
+
+    /**
+     * Set the hard deadline of a move of the robot.
+     *
+     * @param moveDeadlineMillis The deadline in milliseconds (0 for no deadline).
+     */
+    public void setMoveDeadlineMillis(long moveDeadlineMillis) {
+        this.moveDeadlineMillis = Math.max(0, moveDeadlineMillis);
+    }
+
+
+    /**
+     * Get the number of threads of the search of the robot.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+
+    /**
+     * Set the number of threads of the search of the robot.
+     *
+     * @param threads The number of threads.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+
+    /**
+     * Checks whether several threads search with Lazy SMP or by splitting the tree.
+     *
+     * @return True for Lazy SMP; false for splitting the tree.
+     */
+    public boolean isLazySmp() {
+        return lazySmp;
+    }
+
+
+    /**
+     * Set whether several threads search with Lazy SMP or by splitting the tree.
+     *
+     * @param lazySmp True for Lazy SMP; false for splitting the tree.
+     */
+    public void setLazySmp(boolean lazySmp) {
+        this.lazySmp = lazySmp;
+    }
+
+
+    /**
+     * Get the largest number of empty cells, at which the robot solves the game exactly.
+     *
+     * @return The number of empty cells (0 if the robot never solves).
+     */
+    public int getEndgameEmpties() {
+        return endgameEmpties;
+    }
+
+
+    /**
+     * Set the largest number of empty cells, at which the robot solves the game exactly.
+     *
+     * @param endgameEmpties The number of empty cells (0 to never solve).
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        this.endgameEmpties = Math.max(0, Math.min(64, endgameEmpties));
+    }
+
+
+    /**
+     * Get the path of the opening book of the robot.
+     *
+     * @return The path (null for no book).
+     */
+    public Path getBookPath() {
+        return bookPath;
+    }
+
+
+    /**
+     * Set the path of the opening book of the robot.
+     *
+     * @param bookPath The path (null for no book).
+     */
+    public void setBookPath(Path bookPath) {
+        this.bookPath = bookPath;
+    }
+
+
+    /**
+     * Checks whether the robot searches its answers while the opponent thinks.
+     *
+     * @return True if the robot ponders; false otherwise.
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+
+    /**
+     * Set whether the robot searches its answers while the opponent thinks.
+     *
+     * @param pondering True to ponder; false otherwise.
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+
+    /**
+     * Checks whether the robot searches by the Monte Carlo tree search.
+     *
+     * @return True for the Monte Carlo tree search; false for the alpha-beta search.
+     */
+    public boolean isMcts() {
+        return mcts;
+    }
+
+
+    /**
+     * Set whether the robot searches by the Monte Carlo tree search.
+     *
+     * @param mcts True for the Monte Carlo tree search; false for the alpha-beta search.
+     */
+    public void setMcts(boolean mcts) {
+        this.mcts = mcts;
+    }
+
+
+    /**
+     * Get the largest number of playouts of a move of the Monte Carlo tree search.
+     *
+     * @return The number of playouts (0 for the time budget only).
+     */
+    public long getPlayoutBudget() {
+        return playoutBudget;
+    }
+
+
+    /**
+     * Set the largest number of playouts of a move of the Monte Carlo tree search.
+     *
+     * @param playoutBudget The number of playouts (0 for the time budget only).
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        this.playoutBudget = Math.max(0, playoutBudget);
+    }
+
+
+    /**
+     * Creating the searcher of the moves of the robot according to its settings: the Monte Carlo tree search
+     * (with the priors of the pattern evaluator) in the Monte Carlo mode; otherwise a serial engine for one
+     * thread, a Lazy SMP search or a tree-splitting engine.
+     *
+     * @return The new searcher (to be closed when the robot stops playing).
+     */
+    public Searcher createSearcher() {
+        if (mcts) {
+            MctsSearch search = new MctsSearch(threads, MctsSearch.DEFAULT_MAX_NODES, PatternEvaluator::new);
+            search.setPlayoutBudget(playoutBudget);
+            return search;
+        } else if (threads > 1 && lazySmp) {
+            return new LazySmpSearch(threads, tableSizeMb);
+        } else if (threads > 1) {
+            return new ParallelSearchEngine(threads, tableSizeMb);
+        }
+        return new SearchEngine(new TranspositionTable(tableSizeMb));
+    }
+
+
+    /**
+     * Creating the exact endgame solver of the robot.
+     *
+     * @return The new solver.
+     */
+    public EndgameSolver createEndgameSolver() {
+        return new EndgameSolver(new TranspositionTable(tableSizeMb));
+    }
+
+
+    /**
+     * Opening the opening book of the robot.
+     *
+     * @return The book, or null if the robot has no book or the book file cannot be read.
+     */
+    public OpeningBook openBook() {
+        return OpeningBook.openIfExists(bookPath);
+    }
+
+
+    /**
+     * Choosing the move of the robot: the move of the opening book, if the position is in the book;
+     * close to the end of the game the solve; if the solve does not finish in the time budget
+     * (or it is not the endgame yet), the usual search.
+     * With a time budget the endgame is first solved for the win, the loss or the draw with a part of the budget,
+     * then exactly with the time left. A won or drawn result is played, if the exact solve does not finish;
+     * otherwise the usual search gets the time left, so the move never takes much more than the budget.
+     *
+     * @param board    The board (not changed).
+     * @param searcher The searcher of the robot.
+     * @param solver   The endgame solver of the robot.
+     * @param book     The opening book of the robot (null if there is none).
+     * @return The result with the chosen move ({@link Board#PASS} if the robot cannot put a disk).
+     */
+    public SearchResult chooseMove(Board board, Searcher searcher, EndgameSolver solver, OpeningBook book) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+        SearchResult result = book != null ? book.lookup(board, color) : null;
+        if (result != null) {
+            return result;
+        }
+        if (board.countEmpties() <= endgameEmpties) {
+            if (timeBudgetMillis <= 0) {
+                return solver.solve(board, color, false, 0);
+            }
+            SearchResult winLossDraw = solver.solve(board, color, true,
+                    Math.max(1, timeBudgetMillis / WIN_LOSS_DRAW_SHARE));
+            if (winLossDraw != null) {
+                result = solver.solve(board, color, false, millisLeft(deadline));
+                if (result == null && winLossDraw.getScore() >= 0) {
+                    return winLossDraw;
+                }
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        return searcher.search(board, color, searchDepth, timeBudgetMillis > 0 ? millisLeft(deadline) : 0);
+    }
+
+
+    /**
+     * Get the time left until the deadline of a move.
+     *
+     * @param deadline The deadline (by {@link System#nanoTime()}).
+     * @return The time in milliseconds (at least 1, so the search still finds a move).
+     */
+    private static long millisLeft(long deadline) {
+        return Math.max(1, (deadline - System.nanoTime()) / 1_000_000);
+    }
+
+
+    /**
+     * Choosing the move of the robot on the given thread (see {@link #chooseMove}); the board is copied, so it
+     * can be changed while the robot thinks.
+     * Cancelling the returned future stops the search at once, and the thread is free for the next task.
+     * The search is stopped as well at the hard deadline (see {@link #getMoveDeadlineMillis()}), and the best
+     * move found so far is returned.
+     * The searcher and the solver must not be used by other threads meanwhile.
+     *
+     * @param board    The board (not changed).
+     * @param searcher The searcher of the robot.
+     * @param solver   The endgame solver of the robot.
+     * @param book     The opening book of the robot (null if there is none).
+     * @param executor The thread of the robot.
+     * @param progress The listener of the finished iterations of the search (null for none).
+     * @return The future result with the chosen move.
+     */
+    public CompletableFuture<SearchResult> chooseMoveAsync(Board board, Searcher searcher, EndgameSolver solver,
+                                                           OpeningBook book, Executor executor,
+                                                           Consumer<SearchResult> progress) {
+        Board position = new Board(board);
+        long deadline = moveDeadlineMillis > 0 ? System.nanoTime() + moveDeadlineMillis * 1_000_000 : Long.MAX_VALUE;
+        CompletableFuture<SearchResult> future = new CompletableFuture<>();
+        BooleanSupplier stopCondition = () -> future.isDone() || System.nanoTime() > deadline;
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                searcher.setStopCondition(stopCondition);
+                searcher.setProgressListener(progress);
+                solver.setStopCondition(stopCondition);
+                try {
+                    future.complete(chooseMove(position, searcher, solver, book));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    searcher.setStopCondition(null);
+                    searcher.setProgressListener(null);
+                    solver.setStopCondition(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
     }
 }
@@ -0,0 +1,278 @@
+package reversi.record;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Class of the reader of an archive of the games, written by {@link GameRecordWriter}.
+ * The file is mapped into memory, and the games are read in place by a {@link Cursor}, so millions of games
+ * can be iterated without creating an object per game.
+ * The format (big-endian) is: the magic number and the version (ints), then the records one after another:
+ * the time of the end of the game (long), the numbers of the black and the white disks (bytes), the names
+ * of the black and the white player (each a byte with the length and the bytes in UTF-8), the number of moves
+ * (byte) and the moves (a byte each: the index of the cell, or -1 for a pass).
+ * A record cut at the end of the file (by an interrupted write) is ignored.
+ */
+public class GameArchive {
+
+    /**
+     * The magic number at the start of an archive ("RVGR").
+     */
+    static final int MAGIC = 0x52564752;
+
+    /**
+     * The version of the format of the archive.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the header of the file (in bytes).
+     */
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * The size of the fixed part of a record: the time and the numbers of the disks.
+     */
+    private static final int FIXED_BYTES = 10;
+
+    /**
+     * The longest name of a player (in bytes).
+     */
+    static final int MAX_NAME_BYTES = 255;
+
+    /**
+     * The highest number of moves of a game.
+     */
+    static final int MAX_MOVES = 255;
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    public GameArchive(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The game archive is too large to be mapped: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a game archive: " + path);
+        }
+    }
+
+
+    /**
+     * Creating a cursor before the first game of the archive.
+     *
+     * @return The new cursor.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+
+    /**
+     * Counting the games of the archive.
+     *
+     * @return The number of games.
+     */
+    public long count() {
+        long count = 0;
+        for (Cursor cursor = cursor(); cursor.next(); ) {
+            count++;
+        }
+        return count;
+    }
+
+
+    /**
+     * Class of a cursor, which moves over the games of the archive and reads the current one in place.
+     */
+    public class Cursor {
+
+        /**
+         * The offset of the current record (-1 before the first record).
+         */
+        private int offset = -1;
+
+        /**
+         * The offset of the next record.
+         */
+        private int next = HEADER_BYTES;
+
+        /**
+         * The offset of the name of the white player in the current record.
+         */
+        private int whiteNameOffset;
+
+        /**
+         * The offset of the moves of the current record.
+         */
+        private int movesOffset;
+
+        /**
+         * The number of moves of the current record.
+         */
+        private int moveCount;
+
+
+        /**
+         * Moving to the next game.
+         *
+         * @return True if there is a next game; false at the end of the archive.
+         */
+        public boolean next() {
+            int limit = buffer.capacity();
+            int position = next;
+            if (position + FIXED_BYTES + 1 > limit) {
+                return false;
+            }
+            int whiteName = position + FIXED_BYTES + 1 + (buffer.get(position + FIXED_BYTES) & 0xFF);
+            if (whiteName + 1 > limit) {
+                return false;
+            }
+            int count = whiteName + 1 + (buffer.get(whiteName) & 0xFF);
+            if (count + 1 > limit) {
+                return false;
+            }
+            int moves = buffer.get(count) & 0xFF;
+            if (count + 1 + moves > limit) {
+                return false;
+            }
+            offset = position;
+            whiteNameOffset = whiteName;
+            movesOffset = count + 1;
+            moveCount = moves;
+            next = movesOffset + moves;
+            return true;
+        }
+
+
+        /**
+         * Get the time of the end of the current game.
+         *
+         * @return The time in milliseconds since the epoch.
+         */
+        public long getTimeMillis() {
+            return buffer.getLong(offset);
+        }
+
+
+        /**
+         * Get the number of black disks at the end of the current game.
+         *
+         * @return The number of disks.
+         */
+        public int getBlackDisks() {
+            return buffer.get(offset + 8) & 0xFF;
+        }
+
+
+        /**
+         * Get the number of white disks at the end of the current game.
+         *
+         * @return The number of disks.
+         */
+        public int getWhiteDisks() {
+            return buffer.get(offset + 9) & 0xFF;
+        }
+
+
+        /**
+         * Get the name of the black player of the current game.
+         *
+         * @return The name.
+         */
+        public String getBlackName() {
+            return readName(offset + FIXED_BYTES);
+        }
+
+
+        /**
+         * Get the name of the white player of the current game.
+         *
+         * @return The name.
+         */
+        public String getWhiteName() {
+            return readName(whiteNameOffset);
+        }
+
+
+        /**
+         * Get the number of moves of the current game (including the passes).
+         *
+         * @return The number of moves.
+         */
+        public int getMoveCount() {
+            return moveCount;
+        }
+
+
+        /**
+         * Get a move of the current game.
+         *
+         * @param index The index of the move.
+         * @return The index of the cell, or {@link Board#PASS}.
+         */
+        public int getMove(int index) {
+            return buffer.get(movesOffset + index);
+        }
+
+
+        /**
+         * Replaying the first moves of the current game on a board.
+         *
+         * @param board The board in the starting position (changed).
+         * @param plies The number of moves to replay.
+         * @return The color of the player to move after the moves.
+         * @throws IllegalStateException If a move is not possible.
+         */
+        public Color replay(Board board, int plies) {
+            Color color = Color.BLACK;
+            for (int index = 0; index < plies; index++) {
+                color = GameRecord.play(board, color, getMove(index));
+            }
+            return color;
+        }
+
+
+        /**
+         * Creating the record of the current game.
+         *
+         * @return The new record.
+         */
+        public GameRecord toRecord() {
+            byte[] moves = new byte[moveCount];
+            for (int index = 0; index < moveCount; index++) {
+                moves[index] = buffer.get(movesOffset + index);
+            }
+            return new GameRecord(getBlackName(), getWhiteName(), getBlackDisks(), getWhiteDisks(),
+                    getTimeMillis(), moves);
+        }
+
+
+        /**
+         * Reading a name.
+         *
+         * @param position The offset of the length of the name.
+         * @return The name.
+         */
+        private String readName(int position) {
+            byte[] bytes = new byte[buffer.get(position) & 0xFF];
+            for (int index = 0; index < bytes.length; index++) {
+                bytes[index] = buffer.get(position + 1 + index);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
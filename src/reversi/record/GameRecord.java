@@ -0,0 +1,203 @@
+package reversi.record;
+
+import reversi.logic.BoardController;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.Arrays;
+
+
+/**
+ * Class of the record of a finished game: the names of the players, the final numbers of the disks, the time
+ * of the end of the game and the moves, one byte each (the index of the cell, or {@link Board#PASS} when the
+ * player to move passed). The black player makes the first move and the players alternate, so the color of
+ * every move follows from its place in the list.
+ */
+public class GameRecord {
+
+    /**
+     * The name of the black player.
+     */
+    private final String blackName;
+
+    /**
+     * The name of the white player.
+     */
+    private final String whiteName;
+
+    /**
+     * The number of black disks at the end of the game.
+     */
+    private final int blackDisks;
+
+    /**
+     * The number of white disks at the end of the game.
+     */
+    private final int whiteDisks;
+
+    /**
+     * The time of the end of the game (milliseconds since the epoch).
+     */
+    private final long timeMillis;
+
+    /**
+     * The moves of the game.
+     */
+    private final byte[] moves;
+
+    public GameRecord(String blackName, String whiteName, int blackDisks, int whiteDisks, long timeMillis,
+                      byte[] moves) {
+        this.blackName = blackName;
+        this.whiteName = whiteName;
+        this.blackDisks = blackDisks;
+        this.whiteDisks = whiteDisks;
+        this.timeMillis = timeMillis;
+        this.moves = moves;
+    }
+
+
+    /**
+     * Creating the record of the game played on the board of a controller: the moves up to the current ply,
+     * with a pass inserted wherever a player moved twice in a row.
+     *
+     * @param controller The controller of the board.
+     * @param blackName  The name of the black player.
+     * @param whiteName  The name of the white player.
+     * @return The new record.
+     */
+    public static GameRecord fromController(BoardController controller, String blackName, String whiteName) {
+        byte[] moves = new byte[controller.getPly() * 2];
+        int count = 0;
+        Color color = Color.BLACK;
+        for (int index = 0; index < controller.getPly(); index++) {
+            if (controller.getMoveColor(index) != color) {
+                moves[count++] = (byte) Board.PASS;
+                color = color.opposite();
+            }
+            moves[count++] = (byte) controller.getMoveSquare(index);
+            color = color.opposite();
+        }
+        Board board = controller.getBoard();
+        return new GameRecord(blackName, whiteName, board.countDisks(Color.BLACK), board.countDisks(Color.WHITE),
+                System.currentTimeMillis(), Arrays.copyOf(moves, count));
+    }
+
+
+    /**
+     * Get the name of the black player.
+     *
+     * @return The name.
+     */
+    public String getBlackName() {
+        return blackName;
+    }
+
+
+    /**
+     * Get the name of the white player.
+     *
+     * @return The name.
+     */
+    public String getWhiteName() {
+        return whiteName;
+    }
+
+
+    /**
+     * Get the number of black disks at the end of the game.
+     *
+     * @return The number of disks.
+     */
+    public int getBlackDisks() {
+        return blackDisks;
+    }
+
+
+    /**
+     * Get the number of white disks at the end of the game.
+     *
+     * @return The number of disks.
+     */
+    public int getWhiteDisks() {
+        return whiteDisks;
+    }
+
+
+    /**
+     * Get the time of the end of the game.
+     *
+     * @return The time in milliseconds since the epoch.
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+
+    /**
+     * Get the number of moves (including the passes).
+     *
+     * @return The number of moves.
+     */
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+
+    /**
+     * Get a move of the game.
+     *
+     * @param index The index of the move.
+     * @return The index of the cell, or {@link Board#PASS}.
+     */
+    public int getMove(int index) {
+        return moves[index];
+    }
+
+
+    /**
+     * Get the moves of the game.
+     *
+     * @return A copy of the moves.
+     */
+    public byte[] getMoves() {
+        return moves.clone();
+    }
+
+
+    /**
+     * Replaying the first moves of the game from the starting position.
+     *
+     * @param plies The number of moves to replay.
+     * @return The board after the moves.
+     * @throws IllegalStateException If a move is not possible.
+     */
+    public Board replay(int plies) {
+        Board board = new Board();
+        Color color = Color.BLACK;
+        for (int index = 0; index < plies; index++) {
+            color = play(board, color, moves[index]);
+        }
+        return board;
+    }
+
+
+    /**
+     * Making a recorded move on the board.
+     *
+     * @param board The board.
+     * @param color The color of the player to move.
+     * @param move  The index of the cell, or {@link Board#PASS}.
+     * @return The color of the player to move next.
+     * @throws IllegalStateException If the move is not possible.
+     */
+    static Color play(Board board, Color color, int move) {
+        if (move != Board.PASS) {
+            long flips = move >= 0 && move < 64 ? board.getFlips(color, move) : 0;
+            if (flips == 0) {
+                throw new IllegalStateException("Impossible move " + move + " of " + color);
+            }
+            board.applyMove(color, move, flips);
+        }
+        return color.opposite();
+    }
+}
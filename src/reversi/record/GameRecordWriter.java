@@ -0,0 +1,126 @@
+package reversi.record;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Class of the writer, which appends the records of the games to an archive file (see {@link GameArchive}
+ * for the format). The records are buffered, so appending a game costs no system call; the buffer is written
+ * by {@link #flush()} and {@link #close()}. The writer can be shared by several threads.
+ */
+public class GameRecordWriter implements Closeable {
+
+    /**
+     * The size of the buffer.
+     */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * The stream of the file.
+     */
+    private final DataOutputStream output;
+
+    /**
+     * The number of records appended by this writer.
+     */
+    private long count;
+
+    public GameRecordWriter(Path path) throws IOException {
+        boolean empty = !Files.exists(path) || Files.size(path) == 0;
+        if (!empty) {
+            try (InputStream input = Files.newInputStream(path)) {
+                DataInputStream data = new DataInputStream(input);
+                if (data.readInt() != GameArchive.MAGIC || data.readInt() != GameArchive.VERSION) {
+                    throw new IOException("Not a game archive: " + path);
+                }
+            }
+        }
+        output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_BYTES));
+        if (empty) {
+            output.writeInt(GameArchive.MAGIC);
+            output.writeInt(GameArchive.VERSION);
+        }
+    }
+
+
+    /**
+     * Appending the record of a game.
+     *
+     * @param record The record.
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void append(GameRecord record) throws IOException {
+        if (record.getMoveCount() > GameArchive.MAX_MOVES) {
+            throw new IOException("Too many moves in the game: " + record.getMoveCount());
+        }
+        output.writeLong(record.getTimeMillis());
+        output.writeByte(record.getBlackDisks());
+        output.writeByte(record.getWhiteDisks());
+        writeName(record.getBlackName());
+        writeName(record.getWhiteName());
+        output.writeByte(record.getMoveCount());
+        for (int index = 0; index < record.getMoveCount(); index++) {
+            output.writeByte(record.getMove(index));
+        }
+        count++;
+    }
+
+
+    /**
+     * Writing a name: the length in bytes and the bytes in UTF-8 (the name is cut to
+     * {@link GameArchive#MAX_NAME_BYTES} bytes).
+     *
+     * @param name The name.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeName(String name) throws IOException {
+        byte[] bytes = (name == null ? "" : name).getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, GameArchive.MAX_NAME_BYTES);
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        output.writeByte(length);
+        output.write(bytes, 0, length);
+    }
+
+
+    /**
+     * Get the number of records appended by this writer.
+     *
+     * @return The number of records.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+
+    /**
+     * Writing the buffered records to the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        output.flush();
+    }
+
+
+    /**
+     * Writing the buffered records and closing the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,446 @@
+package reversi.record;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Class of the store of the best result of every player, which can be updated by many rounds at once and
+ * survives the restarts of the app.
+ * The results are kept in a concurrent map (the result of a player) and in a sorted set (the leaderboard),
+ * so a player is found in constant time and the top N players in O(log n + N).
+ * Every new best result is appended to a log file. After {@link #SNAPSHOT_INTERVAL} records the log is
+ * rotated and all the results are written to a compacted snapshot in the background, then the old log is
+ * deleted. At startup the snapshot is loaded and the logs are replayed on top of it. A result only replaces
+ * a lower one, so the records can be applied in any order and more than once.
+ * Without a directory the store is kept in memory only.
+ */
+public class StatisticsStore implements Closeable {
+
+    /**
+     * The number of records in the log, after which a snapshot is written.
+     */
+    public static final int SNAPSHOT_INTERVAL = 10_000;
+
+    /**
+     * The magic number at the start of a log file ("RVSL").
+     */
+    private static final int LOG_MAGIC = 0x5256534C;
+
+    /**
+     * The magic number at the start of a snapshot file ("RVSS").
+     */
+    private static final int SNAPSHOT_MAGIC = 0x52565353;
+
+    /**
+     * The name of the snapshot file.
+     */
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    /**
+     * The name of the file locked while the store is open, so only one process uses the directory.
+     */
+    private static final String LOCK_FILE = "lock";
+
+    /**
+     * The prefix of the names of the log files (followed by the number of the log).
+     */
+    private static final String LOG_PREFIX = "log-";
+
+    /**
+     * The size of the buffers of the files.
+     */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * The order of the leaderboard: the higher result first, then the name.
+     */
+    private static final Comparator<Entry> LEADERBOARD_ORDER =
+            Comparator.comparingInt((Entry entry) -> -entry.result).thenComparing(entry -> entry.name);
+
+    /**
+     * The best result of every player.
+     */
+    private final ConcurrentHashMap<String, Integer> results = new ConcurrentHashMap<>();
+
+    /**
+     * The players sorted by their best results.
+     */
+    private final ConcurrentSkipListSet<Entry> leaderboard = new ConcurrentSkipListSet<>(LEADERBOARD_ORDER);
+
+    /**
+     * The directory of the files (null if the store is kept in memory only).
+     */
+    private final Path directory;
+
+    /**
+     * The guard of the log.
+     */
+    private final Object logLock = new Object();
+
+    /**
+     * The thread writing the snapshots.
+     */
+    private final ExecutorService snapshotter;
+
+    /**
+     * Whether a snapshot is being written.
+     */
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    /**
+     * The channel of the lock file (null if the store is kept in memory only).
+     */
+    private final FileChannel lockChannel;
+
+    /**
+     * The stream of the current log.
+     */
+    private DataOutputStream log;
+
+    /**
+     * The number of the current log.
+     */
+    private long logNumber;
+
+    /**
+     * The number of records in the current log.
+     */
+    private int logRecords;
+
+    public StatisticsStore() {
+        directory = null;
+        snapshotter = null;
+        lockChannel = null;
+    }
+
+    public StatisticsStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("The statistics are used by another game: " + directory);
+        }
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            load(snapshot, SNAPSHOT_MAGIC);
+        }
+        for (Path path : logFiles()) {
+            load(path, LOG_MAGIC);
+            logNumber = Math.max(logNumber, logNumber(path));
+        }
+        results.forEach((name, result) -> leaderboard.add(new Entry(name, result)));
+        openLog(logNumber + 1);
+        snapshotter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * Method for updating the result of a player: the result is kept if it is the best of the player.
+     *
+     * @param name   The name of the player.
+     * @param result The new result.
+     * @return True if the result is the new best result of the player; false otherwise.
+     * @throws IOException If the log cannot be written.
+     */
+    public boolean updateResult(String name, int result) throws IOException {
+        boolean[] improved = new boolean[1];
+        results.compute(name, (key, best) -> {
+            if (best != null && best >= result) {
+                return best;
+            }
+            leaderboard.add(new Entry(key, result));
+            if (best != null) {
+                leaderboard.remove(new Entry(key, best));
+            }
+            improved[0] = true;
+            return result;
+        });
+        if (improved[0] && directory != null) {
+            append(name, result);
+        }
+        return improved[0];
+    }
+
+
+    /**
+     * Get the best result of a player.
+     *
+     * @param name The name of the player.
+     * @return The best result, or null if the player has no result.
+     */
+    public Integer getResult(String name) {
+        return results.get(name);
+    }
+
+
+    /**
+     * Get the players with the best results.
+     *
+     * @param count The number of players.
+     * @return Up to count players, the best first.
+     */
+    public List<Entry> getTop(int count) {
+        List<Entry> top = new ArrayList<>(Math.min(count, 1024));
+        Iterator<Entry> iterator = leaderboard.iterator();
+        while (top.size() < count && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+
+    /**
+     * Get the number of players with a result.
+     *
+     * @return The number of players.
+     */
+    public int size() {
+        return results.size();
+    }
+
+
+    /**
+     * Method for appending a record to the log, starting a snapshot when the log is long enough.
+     *
+     * @param name   The name of the player.
+     * @param result The result.
+     * @throws IOException If the log cannot be written.
+     */
+    private void append(String name, int result) throws IOException {
+        boolean full;
+        synchronized (logLock) {
+            log.writeUTF(name);
+            log.writeInt(result);
+            log.flush();
+            full = ++logRecords >= SNAPSHOT_INTERVAL;
+        }
+        if (full && snapshotting.compareAndSet(false, true)) {
+            snapshotter.execute(() -> {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    System.out.println("Couldn't write the snapshot of the statistics: " + e.getMessage());
+                } finally {
+                    snapshotting.set(false);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Writing a compacted snapshot: the log is rotated, all the results are written to a new snapshot file,
+     * which replaces the old one, and the logs before the rotation are deleted. The results updated while the
+     * snapshot is written are in the new log as well, so none is lost.
+     *
+     * @throws IOException If the files cannot be written.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        long lastLog;
+        synchronized (logLock) {
+            lastLog = logNumber;
+            log.close();
+            openLog(logNumber + 1);
+        }
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporary), BUFFER_BYTES))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            for (Map.Entry<String, Integer> entry : results.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeInt(entry.getValue());
+            }
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        for (Path path : logFiles()) {
+            if (logNumber(path) <= lastLog) {
+                Files.delete(path);
+            }
+        }
+    }
+
+
+    /**
+     * Method for opening a new log.
+     *
+     * @param number The number of the log.
+     * @throws IOException If the log cannot be created.
+     */
+    private void openLog(long number) throws IOException {
+        logNumber = number;
+        logRecords = 0;
+        log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                directory.resolve(LOG_PREFIX + number + ".bin"), StandardOpenOption.CREATE_NEW), BUFFER_BYTES));
+        log.writeInt(LOG_MAGIC);
+        log.flush();
+    }
+
+
+    /**
+     * Method for loading the results of a snapshot or a log (a record cut at the end is ignored).
+     *
+     * @param path  The path of the file.
+     * @param magic The expected magic number.
+     * @throws IOException If the file cannot be read or is not of the expected kind.
+     */
+    private void load(Path path, int magic) throws IOException {
+        try (InputStream stream = Files.newInputStream(path)) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(stream, BUFFER_BYTES));
+            try {
+                if (input.readInt() != magic) {
+                    throw new IOException("Not a statistics file: " + path);
+                }
+            } catch (EOFException e) {
+                return;
+            }
+            while (true) {
+                String name;
+                int result;
+                try {
+                    name = input.readUTF();
+                    result = input.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                results.merge(name, result, Math::max);
+            }
+        }
+    }
+
+
+    /**
+     * Get the log files of the directory.
+     *
+     * @return The paths of the logs.
+     * @throws IOException If the directory cannot be read.
+     */
+    private List<Path> logFiles() throws IOException {
+        List<Path> logs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, LOG_PREFIX + "*.bin")) {
+            for (Path path : stream) {
+                logs.add(path);
+            }
+        }
+        return logs;
+    }
+
+
+    /**
+     * Get the number of a log from the name of its file.
+     *
+     * @param path The path of the log.
+     * @return The number of the log.
+     */
+    private static long logNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - ".bin".length()));
+    }
+
+
+    /**
+     * Writing the last snapshot and closing the files.
+     *
+     * @throws IOException If the files cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        snapshot();
+        synchronized (logLock) {
+            log.close();
+        }
+        lockChannel.close();
+    }
+
+
+    /**
+     * Class of an entry of the leaderboard: a player and the best result.
+     */
+    public static class Entry {
+
+        /**
+         * The name of the player.
+         */
+        private final String name;
+
+        /**
+         * The best result of the player.
+         */
+        private final int result;
+
+        Entry(String name, int result) {
+            this.name = name;
+            this.result = result;
+        }
+
+
+        /**
+         * Get the name of the player.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+
+        /**
+         * Get the best result of the player.
+         *
+         * @return The result.
+         */
+        public int getResult() {
+            return result;
+        }
+    }
+}
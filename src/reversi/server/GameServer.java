@@ -0,0 +1,293 @@
+package reversi.server;
+
+import reversi.logic.SearchResult;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.player.RobotPlayer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * Class of the network game server, which hosts many games of users against the robot in one process.
+ * All the connections are served by one thread with a NIO selector, so an idle player costs only a registered
+ * channel and a few small buffers. The moves of the robots are computed on a bounded pool of threads
+ * ({@link RobotPool}), and the results are handed back to the selector thread, which owns all the games.
+ * The protocol is text, one command per line (ASCII, the lines end with '\n'):
+ * the player sends "NEW easy" or "NEW hard" (a new game, the player has the black disks), "MOVE row column",
+ * "UNDO" (take back the last move of the player and the answer of the robot), "BOARD" and "QUIT";
+ * the server sends "WELCOME reversi", "GAME mode", "BOARD cells" (64 characters row by row: '.' empty,
+ * 'X' black, 'O' white), "TURN moves" (the possible moves of the player, each as the digits of the row and
+ * the column), "ROBOT row column", "PASS" or "ROBOT PASS" (a player without a move), "GAMEOVER black white",
+ * "ERR message" and "BYE".
+ */
+public class GameServer implements AutoCloseable {
+
+    /**
+     * The default port of the server.
+     */
+    public static final int DEFAULT_PORT = 7777;
+
+    /**
+     * The default maximal number of connected players.
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 10000;
+
+    /**
+     * The interval of the status line of the server (in milliseconds).
+     */
+    private static final long STATUS_INTERVAL_MILLIS = 10_000;
+
+    /**
+     * The selector of all the channels.
+     */
+    private final Selector selector;
+
+    /**
+     * The channel, which accepts the connections.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * The maximal number of connected players.
+     */
+    private final int maxSessions;
+
+    /**
+     * The pool computing the moves of the robots.
+     */
+    private final RobotPool robots;
+
+    /**
+     * The robot of the easy games.
+     */
+    private final RobotPlayer easyRobot;
+
+    /**
+     * The robot of the hard games.
+     */
+    private final RobotPlayer hardRobot;
+
+    /**
+     * The moves of the robots, computed by the pool and waiting for the selector thread.
+     */
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The buffer of the reads (shared by all the sessions, since they are read one by one).
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(8192);
+
+    /**
+     * The number of connected players.
+     */
+    private int sessions;
+
+    /**
+     * The number of started games.
+     */
+    private long gamesStarted;
+
+    /**
+     * The number of finished games.
+     */
+    private long gamesFinished;
+
+    /**
+     * Whether the server is running.
+     */
+    private volatile boolean running = true;
+
+    public GameServer(int port, int maxSessions, int robotThreads) throws IOException {
+        this.maxSessions = maxSessions;
+        easyRobot = new RobotPlayer("easy", Color.WHITE);
+        hardRobot = new RobotPlayer("hard", Color.WHITE);
+        robots = new RobotPool(robotThreads, maxSessions, hardRobot.getTableSizeMb(), hardRobot.openBook());
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+
+    /**
+     * The starting point of the server.
+     *
+     * @param args Args: the port (default 7777), the maximal number of players (default 10000) and the number
+     *             of threads of the robots (default: all the processors).
+     * @throws IOException If the port cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SESSIONS;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        try (GameServer server = new GameServer(port, maxSessions, threads)) {
+            System.out.println("Listening on port " + port + ", at most " + maxSessions + " players, " +
+                    threads + " robot threads");
+            server.run();
+        }
+    }
+
+
+    /**
+     * Method for serving the connections until the server is closed.
+     *
+     * @throws IOException If the selector fails.
+     */
+    public void run() throws IOException {
+        long nextStatus = System.currentTimeMillis() + STATUS_INTERVAL_MILLIS;
+        while (running) {
+            selector.select(STATUS_INTERVAL_MILLIS);
+            for (SelectionKey key : selector.selectedKeys()) {
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Session session = (Session) key.attachment();
+                if (key.isWritable()) {
+                    session.flush();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    read(session, (SocketChannel) key.channel());
+                }
+            }
+            selector.selectedKeys().clear();
+            for (Runnable completion = completions.poll(); completion != null; completion = completions.poll()) {
+                completion.run();
+            }
+            if (System.currentTimeMillis() >= nextStatus) {
+                nextStatus = System.currentTimeMillis() + STATUS_INTERVAL_MILLIS;
+                System.out.println("Players: " + sessions + ", games started: " + gamesStarted + ", finished: " +
+                        gamesFinished + ", robot moves: " + robots.getMoves() + ", queued: " + robots.getQueued());
+            }
+        }
+    }
+
+
+    /**
+     * Method for accepting the waiting connections.
+     *
+     * @throws IOException If the accepting channel fails.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            if (sessions >= maxSessions) {
+                channel.write(ByteBuffer.wrap("ERR server full\n".getBytes(StandardCharsets.US_ASCII)));
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            Session session = new Session(this, channel, key);
+            key.attach(session);
+            sessions++;
+            session.open();
+        }
+    }
+
+
+    /**
+     * Method for reading the available bytes of a session.
+     *
+     * @param session The session.
+     * @param channel The channel of the session.
+     */
+    private void read(Session session, SocketChannel channel) {
+        readBuffer.clear();
+        int count;
+        try {
+            count = channel.read(readBuffer);
+        } catch (IOException e) {
+            count = -1;
+        }
+        if (count < 0) {
+            session.close();
+            return;
+        }
+        readBuffer.flip();
+        session.receive(readBuffer);
+    }
+
+
+    /**
+     * Get the robot of the given difficulty (the robots have no state, so all the games share them).
+     *
+     * @param mode Difficulty of the robot: easy or hard.
+     * @return The robot.
+     */
+    RobotPlayer getRobot(String mode) {
+        return mode.equals("hard") ? hardRobot : easyRobot;
+    }
+
+
+    /**
+     * Method for handing the move of a robot to the pool; the result is returned to the session on the selector
+     * thread.
+     *
+     * @param session The session.
+     * @param board   The copy of the board.
+     * @param robot   The robot.
+     */
+    void requestRobotMove(Session session, Board board, RobotPlayer robot) {
+        robots.submit(board, robot, (SearchResult result) -> {
+            completions.add(() -> session.robotMoved(result));
+            selector.wakeup();
+        });
+    }
+
+
+    /**
+     * Method for counting a started game.
+     */
+    void gameStarted() {
+        gamesStarted++;
+    }
+
+
+    /**
+     * Method for counting a finished game.
+     */
+    void gameFinished() {
+        gamesFinished++;
+    }
+
+
+    /**
+     * Method for forgetting a closed session.
+     *
+     * @param session The session.
+     */
+    void sessionClosed(Session session) {
+        sessions--;
+    }
+
+
+    /**
+     * Stopping the server: the loop ends, the connections and the robot threads are closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        robots.close();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+}
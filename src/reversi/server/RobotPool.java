@@ -0,0 +1,114 @@
+package reversi.server;
+
+import reversi.logic.EndgameSolver;
+import reversi.logic.OpeningBook;
+import reversi.logic.SearchEngine;
+import reversi.logic.SearchResult;
+import reversi.logic.TranspositionTable;
+import reversi.object.Board;
+import reversi.player.RobotPlayer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+
+/**
+ * Class of the bounded pool of threads, which compute the moves of the robots of all the games of the server.
+ * Every thread has its own search engine and endgame solver (reused by all the games it serves); the opening
+ * book is shared, because it is only read.
+ * The queue of the pool is bounded by the number of sessions of the server, since a session waits for at most
+ * one move of its robot.
+ */
+public class RobotPool implements AutoCloseable {
+
+    /**
+     * The threads computing the moves.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The search engine of each thread.
+     */
+    private final ThreadLocal<SearchEngine> searchers;
+
+    /**
+     * The endgame solver of each thread.
+     */
+    private final ThreadLocal<EndgameSolver> solvers;
+
+    /**
+     * The opening book of the robots (null if there is none).
+     */
+    private final OpeningBook book;
+
+    /**
+     * The number of computed moves.
+     */
+    private final AtomicInteger moves = new AtomicInteger();
+
+    public RobotPool(int threads, int capacity, int tableSizeMb, OpeningBook book) {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "robot-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        searchers = ThreadLocal.withInitial(() -> new SearchEngine(new TranspositionTable(tableSizeMb)));
+        solvers = ThreadLocal.withInitial(() -> new EndgameSolver(new TranspositionTable(tableSizeMb)));
+        this.book = book;
+    }
+
+
+    /**
+     * Computing the move of a robot on one of the threads.
+     *
+     * @param board    The board (owned by the pool from now on).
+     * @param robot    The robot.
+     * @param callback The receiver of the result, called on the thread of the pool (with null if the search
+     *                 failed).
+     */
+    public void submit(Board board, RobotPlayer robot, Consumer<SearchResult> callback) {
+        executor.execute(() -> {
+            SearchResult result = null;
+            try {
+                result = robot.chooseMove(board, searchers.get(), solvers.get(), book);
+                moves.incrementAndGet();
+            } finally {
+                callback.accept(result);
+            }
+        });
+    }
+
+
+    /**
+     * Get the number of moves computed so far.
+     *
+     * @return The number of moves.
+     */
+    public int getMoves() {
+        return moves.get();
+    }
+
+
+    /**
+     * Get the number of moves waiting for a thread.
+     *
+     * @return The length of the queue.
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+
+    /**
+     * Stopping the threads (the waiting moves are dropped).
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
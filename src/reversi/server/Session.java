@@ -0,0 +1,388 @@
+package reversi.server;
+
+import reversi.logic.BoardController;
+import reversi.logic.SearchResult;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.player.RobotPlayer;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+
+/**
+ * Class of a connection of a player to the {@link GameServer} and of the game played over it.
+ * The session is a state machine driven by the lines of the player and by the moves of the robot; all its
+ * methods are called on the selector thread of the server, so it needs no locking.
+ * The user plays the black disks and the robot the white disks, like in {@link reversi.game.RoundWithRobot}.
+ */
+public class Session {
+
+    /**
+     * The longest accepted line of the player.
+     */
+    private static final int MAX_LINE_LENGTH = 256;
+
+    /**
+     * The server of the session.
+     */
+    private final GameServer server;
+
+    /**
+     * The channel of the connection.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * The key of the channel in the selector of the server.
+     */
+    private final SelectionKey key;
+
+    /**
+     * The characters of the line, which is being read.
+     */
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * The lines to send, collected while an event is handled and sent together.
+     */
+    private final StringBuilder outgoing = new StringBuilder();
+
+    /**
+     * The bytes, which the channel did not take yet.
+     */
+    private final Deque<ByteBuffer> pending = new ArrayDeque<>();
+
+    /**
+     * The controller of the board of the current game (null if no game is played).
+     */
+    private BoardController controller;
+
+    /**
+     * The robot of the current game.
+     */
+    private RobotPlayer robot;
+
+    /**
+     * The color of the player to move in the current game.
+     */
+    private Color toMove;
+
+    /**
+     * Whether the robot is computing its move.
+     */
+    private boolean thinking;
+
+    /**
+     * Whether the session is closed once the pending bytes are sent.
+     */
+    private boolean closing;
+
+    /**
+     * Whether the connection is closed.
+     */
+    private boolean closed;
+
+    public Session(GameServer server, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+    }
+
+
+    /**
+     * Method for greeting the player, when the connection is accepted.
+     */
+    void open() {
+        send("WELCOME reversi");
+        flush();
+    }
+
+
+    /**
+     * Method for handling the bytes read from the channel: every complete line is a command.
+     *
+     * @param buffer The read bytes (ASCII), ready to be read.
+     */
+    void receive(ByteBuffer buffer) {
+        while (buffer.hasRemaining() && !closing) {
+            char character = (char) (buffer.get() & 0xFF);
+            if (character == '\n') {
+                handleLine(line.toString().trim());
+                line.setLength(0);
+            } else if (line.length() < MAX_LINE_LENGTH) {
+                line.append(character);
+            } else {
+                send("ERR line too long");
+                closing = true;
+            }
+        }
+        flush();
+    }
+
+
+    /**
+     * Method for handling a command of the player.
+     *
+     * @param command The line of the player.
+     */
+    private void handleLine(String command) {
+        String[] words = command.split("\\s+");
+        switch (words[0].toUpperCase()) {
+            case "NEW":
+                newGame(words.length > 1 ? words[1].toLowerCase() : "easy");
+                break;
+            case "MOVE":
+                move(words);
+                break;
+            case "UNDO":
+                undo();
+                break;
+            case "BOARD":
+                if (controller != null) {
+                    sendBoard();
+                } else {
+                    send("ERR no game");
+                }
+                break;
+            case "QUIT":
+                send("BYE");
+                closing = true;
+                break;
+            case "":
+                break;
+            default:
+                send("ERR unknown command " + words[0]);
+        }
+    }
+
+
+    /**
+     * Method for starting a new game with the robot.
+     *
+     * @param mode Difficulty of the robot: easy or hard.
+     */
+    private void newGame(String mode) {
+        if (thinking) {
+            send("ERR wait for the robot");
+            return;
+        }
+        if (!mode.equals("easy") && !mode.equals("hard")) {
+            send("ERR unknown mode " + mode);
+            return;
+        }
+        controller = new BoardController();
+        robot = server.getRobot(mode);
+        toMove = Color.BLACK;
+        server.gameStarted();
+        send("GAME " + mode);
+        advance();
+    }
+
+
+    /**
+     * Method for making the move of the player.
+     *
+     * @param words The words of the command: MOVE, the row and the column.
+     */
+    private void move(String[] words) {
+        if (controller == null) {
+            send("ERR no game");
+            return;
+        }
+        if (thinking || toMove != Color.BLACK) {
+            send("ERR wait for the robot");
+            return;
+        }
+        int row;
+        int column;
+        try {
+            row = Integer.parseInt(words[1]);
+            column = Integer.parseInt(words[2]);
+        } catch (RuntimeException e) {
+            send("ERR expected MOVE row column");
+            return;
+        }
+        if (!controller.canPutDisk(Color.BLACK, new Point(row, column))) {
+            send("ERR illegal move");
+            return;
+        }
+        controller.putDisk(Color.BLACK, new Point(row, column));
+        toMove = Color.WHITE;
+        advance();
+    }
+
+
+    /**
+     * Method for taking back the last move of the player (with the answer of the robot).
+     */
+    private void undo() {
+        if (controller == null) {
+            send("ERR no game");
+        } else if (thinking) {
+            send("ERR wait for the robot");
+        } else if (!controller.goToPreviousCheckpoint()) {
+            send("ERR nothing to undo");
+        } else {
+            toMove = Color.BLACK;
+            sendBoard();
+            sendTurn();
+        }
+    }
+
+
+    /**
+     * Method for continuing the game up to the next decision: the turn of the player (the board and the possible
+     * moves are sent), a move of the robot (handed to the pool of the server) or the end of the game.
+     * A player without a possible move passes.
+     */
+    private void advance() {
+        while (true) {
+            if (controller.isGameOver()) {
+                Board board = controller.getBoard();
+                sendBoard();
+                send("GAMEOVER " + board.countDisks(Color.BLACK) + " " + board.countDisks(Color.WHITE));
+                controller = null;
+                server.gameFinished();
+                return;
+            }
+            if (!controller.canPutAnyDisk(toMove)) {
+                send(toMove == Color.BLACK ? "PASS" : "ROBOT PASS");
+                toMove = toMove.opposite();
+                continue;
+            }
+            if (toMove == Color.BLACK) {
+                controller.updateHistory();
+                sendBoard();
+                sendTurn();
+                return;
+            }
+            thinking = true;
+            server.requestRobotMove(this, new Board(controller.getBoard()), robot);
+            return;
+        }
+    }
+
+
+    /**
+     * Method for making the move of the robot, when it is computed.
+     *
+     * @param result The result of the search (null if the search failed).
+     */
+    void robotMoved(SearchResult result) {
+        thinking = false;
+        if (closed) {
+            return;
+        }
+        if (result == null || result.getMove() == Board.PASS) {
+            send("ERR the robot failed");
+            controller = null;
+            flush();
+            return;
+        }
+        Point position = result.getPosition();
+        controller.putDisk(Color.WHITE, position);
+        send("ROBOT " + position.x + " " + position.y);
+        toMove = Color.BLACK;
+        advance();
+        flush();
+    }
+
+
+    /**
+     * Method for sending the cells of the board: '.' for an empty cell, 'X' for a black disk and 'O' for a white
+     * disk, row by row.
+     */
+    private void sendBoard() {
+        Board board = controller.getBoard();
+        long black = board.getDisks(Color.BLACK);
+        long white = board.getDisks(Color.WHITE);
+        outgoing.append("BOARD ");
+        for (int square = 0; square < 64; square++) {
+            long mask = 1L << square;
+            outgoing.append((black & mask) != 0 ? 'X' : (white & mask) != 0 ? 'O' : '.');
+        }
+        outgoing.append('\n');
+    }
+
+
+    /**
+     * Method for sending the possible moves of the player, each as the digits of the row and the column.
+     */
+    private void sendTurn() {
+        long moves = controller.getBoard().getPossibleMovesMask(Color.BLACK);
+        outgoing.append("TURN");
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            outgoing.append(' ').append(square >> 3).append(square & 7);
+        }
+        outgoing.append('\n');
+    }
+
+
+    /**
+     * Method for adding a line to the output.
+     *
+     * @param message The line (without the end of the line).
+     */
+    private void send(String message) {
+        outgoing.append(message).append('\n');
+    }
+
+
+    /**
+     * Method for writing the collected output to the channel. The bytes, which the channel does not take,
+     * are kept and written when the channel becomes writable.
+     */
+    void flush() {
+        if (closed) {
+            return;
+        }
+        if (outgoing.length() > 0) {
+            pending.add(ByteBuffer.wrap(outgoing.toString().getBytes(StandardCharsets.US_ASCII)));
+            outgoing.setLength(0);
+        }
+        try {
+            while (!pending.isEmpty()) {
+                ByteBuffer buffer = pending.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                pending.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (closing) {
+                close();
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+
+    /**
+     * Method for closing the connection.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The connection is gone anyway.
+        }
+        server.sessionClosed(this);
+    }
+}
@@ -0,0 +1,120 @@
+package reversi.tools;
+
+import reversi.logic.OpeningBook;
+import reversi.logic.SearchEngine;
+import reversi.logic.SearchResult;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.Symmetry;
+import reversi.object.UndoRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Tool, which builds the opening book offline: every position reachable in the first plies of the game
+ * is searched deeply, and the best moves are written to the book file. The symmetric positions are searched
+ * once, and the book keeps their canonical form.
+ */
+public class BookBuilder {
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the path of the book file (default book.bin), the number of plies covered by the book
+     *             (default 6), the depth of the searches (default 12) and the number of threads
+     *             (default: all the processors).
+     * @throws Exception If the book cannot be built or written.
+     */
+    public static void main(String[] args) throws Exception {
+        Path path = Paths.get(args.length > 0 ? args[0] : "book.bin");
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        List<Board> boards = new ArrayList<>();
+        List<Color> colors = new ArrayList<>();
+        collectPositions(plies, boards, colors);
+        System.out.println("Positions: " + boards.size() + ", depth: " + depth + ", threads: " + threads);
+
+        ConcurrentSkipListMap<Long, SearchResult> entries = new ConcurrentSkipListMap<>();
+        ThreadLocal<SearchEngine> engines = ThreadLocal.withInitial(SearchEngine::new);
+        AtomicInteger done = new AtomicInteger();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int index = 0; index < boards.size(); index++) {
+                Board board = boards.get(index);
+                Color color = colors.get(index);
+                futures.add(executor.submit(() -> {
+                    SearchResult result = engines.get().search(board, color, depth, 0);
+                    int symmetry = board.getCanonicalSymmetry();
+                    entries.put(board.getHash(color, symmetry), new SearchResult(
+                            Symmetry.transformSquare(result.getMove(), symmetry), result.getScore(),
+                            result.getDepth(), result.getNodes(), result.getTimeMillis()));
+                    int count = done.incrementAndGet();
+                    if (count % 100 == 0) {
+                        System.out.println(count + " positions searched");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        OpeningBook.write(path, entries);
+        System.out.println("Book of " + entries.size() + " positions written to " + path + " in " +
+                (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+
+    /**
+     * Collecting the distinct positions of the first plies of the game (the transpositions and the symmetric
+     * positions are kept once).
+     *
+     * @param plies  The number of plies.
+     * @param boards The list, where the positions are added.
+     * @param colors The list, where the colors of the players to move are added.
+     */
+    private static void collectPositions(int plies, List<Board> boards, List<Color> colors) {
+        Set<Long> seen = new HashSet<>();
+        List<Board> level = new ArrayList<>();
+        level.add(new Board());
+        Color color = Color.BLACK;
+        UndoRecord undo = new UndoRecord();
+        for (int ply = 0; ply < plies && !level.isEmpty(); ply++) {
+            List<Board> next = new ArrayList<>();
+            for (Board board : level) {
+                long moves = board.getPossibleMovesMask(color);
+                if (moves == 0 || !seen.add(board.getCanonicalHash(color))) {
+                    continue;
+                }
+                boards.add(board);
+                colors.add(color);
+                while (moves != 0) {
+                    int move = Long.numberOfTrailingZeros(moves);
+                    moves &= moves - 1;
+                    Board child = new Board(board);
+                    child.makeMove(color, move, undo);
+                    next.add(child);
+                }
+            }
+            level = next;
+            color = color.opposite();
+        }
+    }
+}
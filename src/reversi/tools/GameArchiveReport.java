@@ -0,0 +1,58 @@
+package reversi.tools;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.record.GameArchive;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+
+/**
+ * Tool, which reads an archive of the games and prints its summary: the number of games, the wins of each
+ * color, the average number of moves and the speed of the reading. Every game is replayed through the board
+ * and checked against its recorded result.
+ */
+public class GameArchiveReport {
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the path of the archive (default games.bin).
+     * @throws IOException If the archive cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        GameArchive archive = new GameArchive(Paths.get(args.length > 0 ? args[0] : "games.bin"));
+        long start = System.nanoTime();
+        long games = 0;
+        long moves = 0;
+        long blackWins = 0;
+        long whiteWins = 0;
+        long mismatches = 0;
+        for (GameArchive.Cursor cursor = archive.cursor(); cursor.next(); ) {
+            games++;
+            moves += cursor.getMoveCount();
+            int black = cursor.getBlackDisks();
+            int white = cursor.getWhiteDisks();
+            if (black > white) {
+                blackWins++;
+            } else if (white > black) {
+                whiteWins++;
+            }
+            Board board = new Board();
+            try {
+                cursor.replay(board, cursor.getMoveCount());
+                if (board.countDisks(Color.BLACK) != black || board.countDisks(Color.WHITE) != white) {
+                    mismatches++;
+                }
+            } catch (IllegalStateException e) {
+                mismatches++;
+            }
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Games: " + games + ", black wins: " + blackWins + ", white wins: " + whiteWins +
+                ", draws: " + (games - blackWins - whiteWins));
+        System.out.printf("Average moves: %.1f, replayed in %d ms (%.0f games/s), mismatches: %d%n",
+                games == 0 ? 0.0 : (double) moves / games, millis, games * 1000.0 / millis, mismatches);
+    }
+}
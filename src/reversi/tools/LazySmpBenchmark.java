@@ -0,0 +1,64 @@
+package reversi.tools;
+
+import reversi.logic.LazySmpSearch;
+import reversi.logic.SearchEngine;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.List;
+
+
+/**
+ * Tool, which measures the time to reach a fixed depth with the Lazy SMP search at 1, 2, 4, 8 and 16 threads.
+ */
+public class LazySmpBenchmark {
+
+    /**
+     * The numbers of threads, which are measured.
+     */
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the depth (default 11) and the number of positions (default 10).
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 11;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<Board> positions = Positions.randomPositions(count, 20, 1);
+        System.out.println("Positions: " + count + ", depth: " + depth + ", processors: " +
+                Runtime.getRuntime().availableProcessors());
+        warmUp(positions);
+        long singleThreadTime = 0;
+        for (int threads : THREADS) {
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (Board board : positions) {
+                try (LazySmpSearch search = new LazySmpSearch(threads, SearchEngine.DEFAULT_TABLE_SIZE_MB)) {
+                    nodes += search.search(board, Color.BLACK, depth, 0).getNodes();
+                }
+            }
+            long time = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            if (threads == 1) {
+                singleThreadTime = time;
+            }
+            System.out.printf("threads %2d: time to depth %d ms, %d nodes, %d nodes/s, speedup %.2f%n",
+                    threads, time, nodes, nodes * 1000 / time, (double) singleThreadTime / time);
+        }
+    }
+
+
+    /**
+     * Running a few shallow searches, so the measured ones run compiled code.
+     *
+     * @param positions The positions.
+     */
+    private static void warmUp(List<Board> positions) {
+        try (LazySmpSearch search = new LazySmpSearch(2, SearchEngine.DEFAULT_TABLE_SIZE_MB)) {
+            for (Board board : positions) {
+                search.search(board, Color.BLACK, 7, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package reversi.tools;
+
+import reversi.server.GameServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+
+/**
+ * Tool, which loads a {@link GameServer} with many simulated players over one NIO selector.
+ * Every player plays random possible moves against the robot and starts a new game after each finished one.
+ * The players can wait before each move (the thinking time of a human), so the tool can also keep many idle
+ * connections open. At the end the tool reports the finished games per second and the latency of a move: the
+ * time from sending a move to receiving the next turn (which includes the move of the robot).
+ */
+public class LoadGenerator {
+
+    /**
+     * The host of the server.
+     */
+    private final String host;
+
+    /**
+     * The port of the server.
+     */
+    private final int port;
+
+    /**
+     * The difficulty of the robot of the games.
+     */
+    private final String mode;
+
+    /**
+     * The thinking time of a player before each move (in milliseconds).
+     */
+    private final long thinkMillis;
+
+    /**
+     * The selector of all the connections.
+     */
+    private final Selector selector;
+
+    /**
+     * The moves waiting for the end of the thinking time, ordered by the time of sending.
+     */
+    private final PriorityQueue<Client> waiting = new PriorityQueue<>((a, b) -> Long.compare(a.sendAt, b.sendAt));
+
+    /**
+     * The source of the random moves.
+     */
+    private final Random random = new Random();
+
+    /**
+     * The buffer of the reads.
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(8192);
+
+    /**
+     * The latencies of the moves (in microseconds).
+     */
+    private long[] latencies = new long[1 << 16];
+
+    /**
+     * The number of measured moves.
+     */
+    private int moveCount;
+
+    /**
+     * The number of finished games.
+     */
+    private long games;
+
+    /**
+     * The number of errors sent by the server.
+     */
+    private long errors;
+
+    /**
+     * Whether new games are started.
+     */
+    private boolean starting = true;
+
+    public LoadGenerator(String host, int port, String mode, long thinkMillis) throws IOException {
+        this.host = host;
+        this.port = port;
+        this.mode = mode;
+        this.thinkMillis = thinkMillis;
+        selector = Selector.open();
+    }
+
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the host (default localhost), the port (default 7777), the number of players
+     *             (default 100), the duration in seconds (default 30), the difficulty of the robot (default easy)
+     *             and the thinking time of a player in milliseconds (default 0).
+     * @throws IOException If the connections fail.
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        String mode = args.length > 4 ? args[4] : "easy";
+        long think = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        System.out.println("Players: " + players + ", duration: " + seconds + " s, mode: " + mode + ", thinking: " +
+                think + " ms");
+        new LoadGenerator(host, port, mode, think).run(players, seconds * 1000L);
+    }
+
+
+    /**
+     * Method for connecting the players, playing for the given time and printing the report.
+     *
+     * @param players        The number of players.
+     * @param durationMillis The duration of the load.
+     * @throws IOException If the connections fail.
+     */
+    public void run(int players, long durationMillis) throws IOException {
+        long start = System.nanoTime();
+        for (int player = 0; player < players; player++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.connect(new InetSocketAddress(host, port));
+            channel.register(selector, SelectionKey.OP_CONNECT, new Client(channel));
+        }
+        long end = start + durationMillis * 1_000_000;
+        int open = players;
+        while (open > 0 && System.nanoTime() < end + 10_000_000_000L) {
+            if (starting && System.nanoTime() >= end) {
+                starting = false;
+            }
+            long wait = waiting.isEmpty() ? 100 : Math.max(1, waiting.peek().sendAt - System.currentTimeMillis());
+            selector.select(Math.min(100, wait));
+            for (SelectionKey key : selector.selectedKeys()) {
+                Client client = (Client) key.attachment();
+                try {
+                    if (key.isConnectable()) {
+                        client.channel.finishConnect();
+                        key.interestOps(SelectionKey.OP_READ);
+                    } else if (key.isReadable() && !client.read()) {
+                        open--;
+                        key.cancel();
+                        client.channel.close();
+                    }
+                } catch (IOException e) {
+                    errors++;
+                    open--;
+                    key.cancel();
+                    client.channel.close();
+                }
+            }
+            selector.selectedKeys().clear();
+            long now = System.currentTimeMillis();
+            while (!waiting.isEmpty() && waiting.peek().sendAt <= now) {
+                waiting.poll().sendMove();
+            }
+        }
+        selector.close();
+        report(players, (System.nanoTime() - start) / 1_000_000);
+    }
+
+
+    /**
+     * Method for printing the results of the load.
+     *
+     * @param players The number of players.
+     * @param millis  The time of the load.
+     */
+    private void report(int players, long millis) {
+        long[] sorted = Arrays.copyOf(latencies, moveCount);
+        Arrays.sort(sorted);
+        System.out.println("Players: " + players + ", time: " + millis + " ms, errors: " + errors);
+        System.out.printf("Games: %d (%.1f games/s), moves: %d (%.1f moves/s)%n", games,
+                games * 1000.0 / Math.max(1, millis), moveCount, moveCount * 1000.0 / Math.max(1, millis));
+        if (moveCount > 0) {
+            System.out.printf("Move latency: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(sorted, 0.50) / 1000.0, percentile(sorted, 0.90) / 1000.0,
+                    percentile(sorted, 0.99) / 1000.0, sorted[moveCount - 1] / 1000.0);
+        }
+    }
+
+
+    /**
+     * Get a percentile of the sorted values.
+     *
+     * @param sorted   The sorted values.
+     * @param fraction The fraction of the values below the percentile.
+     * @return The value.
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+
+    /**
+     * Method for remembering the latency of a move.
+     *
+     * @param micros The latency in microseconds.
+     */
+    private void recordLatency(long micros) {
+        if (moveCount == latencies.length) {
+            latencies = Arrays.copyOf(latencies, moveCount * 2);
+        }
+        latencies[moveCount++] = micros;
+    }
+
+
+    /**
+     * Class of a simulated player.
+     */
+    private class Client {
+
+        /**
+         * The channel of the connection.
+         */
+        private final SocketChannel channel;
+
+        /**
+         * The characters of the line, which is being read.
+         */
+        private final StringBuilder line = new StringBuilder();
+
+        /**
+         * The move to send, when the thinking time ends.
+         */
+        private String nextMove;
+
+        /**
+         * The time of sending the next move (in milliseconds).
+         */
+        private long sendAt;
+
+        /**
+         * The time of sending the last move (in nanoseconds, 0 if no move waits for the answer).
+         */
+        private long sentAt;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+
+        /**
+         * Method for reading the available lines of the server.
+         *
+         * @return False if the connection is closed.
+         * @throws IOException If the connection fails.
+         */
+        boolean read() throws IOException {
+            readBuffer.clear();
+            if (channel.read(readBuffer) < 0) {
+                return false;
+            }
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                char character = (char) (readBuffer.get() & 0xFF);
+                if (character != '\n') {
+                    line.append(character);
+                } else if (!handleLine(line.toString())) {
+                    return false;
+                } else {
+                    line.setLength(0);
+                }
+            }
+            return true;
+        }
+
+
+        /**
+         * Method for answering a line of the server.
+         *
+         * @param message The line.
+         * @return False if the player leaves.
+         * @throws IOException If the connection fails.
+         */
+        private boolean handleLine(String message) throws IOException {
+            if (message.startsWith("WELCOME")) {
+                send("NEW " + mode);
+            } else if (message.startsWith("TURN")) {
+                measure();
+                String[] moves = message.substring(4).trim().split(" ");
+                String move = moves[random.nextInt(moves.length)];
+                nextMove = "MOVE " + move.charAt(0) + " " + move.charAt(1);
+                sendAt = System.currentTimeMillis() + thinkMillis;
+                if (thinkMillis > 0) {
+                    waiting.add(this);
+                } else {
+                    sendMove();
+                }
+            } else if (message.startsWith("GAMEOVER")) {
+                measure();
+                games++;
+                if (!starting) {
+                    return false;
+                }
+                send("NEW " + mode);
+            } else if (message.startsWith("ERR")) {
+                errors++;
+                if (errors <= 10) {
+                    System.out.println("Server error: " + message);
+                }
+                return !message.equals("ERR server full");
+            }
+            return true;
+        }
+
+
+        /**
+         * Method for remembering the latency of the last move, if it waits for the answer.
+         */
+        private void measure() {
+            if (sentAt != 0) {
+                recordLatency((System.nanoTime() - sentAt) / 1000);
+                sentAt = 0;
+            }
+        }
+
+
+        /**
+         * Method for sending the chosen move.
+         */
+        void sendMove() {
+            try {
+                sentAt = System.nanoTime();
+                send(nextMove);
+            } catch (IOException e) {
+                errors++;
+            }
+        }
+
+
+        /**
+         * Method for sending a line (the lines are short, so the socket buffer always takes them whole).
+         *
+         * @param message The line.
+         * @throws IOException If the connection fails.
+         */
+        private void send(String message) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap((message + "\n").getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
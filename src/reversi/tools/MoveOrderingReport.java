@@ -0,0 +1,68 @@
+package reversi.tools;
+
+import reversi.logic.SearchEngine;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.List;
+
+
+/**
+ * Tool, which compares the number of nodes searched to a fixed depth with the static move order and with
+ * the killer moves and the history table.
+ */
+public class MoveOrderingReport {
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the depth (default 9) and the number of positions (default 20).
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        List<Board> positions = Positions.randomPositions(count, 20, 1);
+        System.out.println("Positions: " + count + ", depth: " + depth);
+        run(positions, Math.min(depth, 6), true);
+        long staticNodes = report("static order", positions, depth, false);
+        long orderedNodes = report("killers + history", positions, depth, true);
+        System.out.printf("Nodes saved: %.1f%%%n", 100.0 * (staticNodes - orderedNodes) / Math.max(1, staticNodes));
+    }
+
+
+    /**
+     * Searching all the positions and printing the totals.
+     *
+     * @param name         The name of the ordering.
+     * @param positions    The positions (the black player is to move).
+     * @param depth        The depth of the search.
+     * @param moveOrdering Whether the killer moves and the history table are used.
+     * @return The total number of nodes.
+     */
+    private static long report(String name, List<Board> positions, int depth, boolean moveOrdering) {
+        long start = System.nanoTime();
+        long nodes = run(positions, depth, moveOrdering);
+        long time = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println(name + ": " + nodes + " nodes, " + time + " ms, " + nodes * 1000 / time + " nodes/s");
+        return nodes;
+    }
+
+
+    /**
+     * Searching all the positions, each with a new engine (so the transposition table starts empty).
+     *
+     * @param positions    The positions (the black player is to move).
+     * @param depth        The depth of the search.
+     * @param moveOrdering Whether the killer moves and the history table are used.
+     * @return The total number of nodes.
+     */
+    private static long run(List<Board> positions, int depth, boolean moveOrdering) {
+        long nodes = 0;
+        for (Board board : positions) {
+            SearchEngine engine = new SearchEngine();
+            engine.setMoveOrdering(moveOrdering);
+            nodes += engine.search(board, Color.BLACK, depth, 0).getNodes();
+        }
+        return nodes;
+    }
+}
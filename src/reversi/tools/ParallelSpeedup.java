@@ -0,0 +1,75 @@
+package reversi.tools;
+
+import reversi.logic.ParallelSearchEngine;
+import reversi.logic.SearchEngine;
+import reversi.logic.SearchResult;
+import reversi.logic.Searcher;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.List;
+
+
+/**
+ * Tool, which compares the parallel search engine with the serial one on a fixed set of positions: the time and
+ * the scores (both engines search the full tree, so the scores have to be the same).
+ */
+public class ParallelSpeedup {
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the number of threads (default: all the processors), the depth (default 10)
+     *             and the number of positions (default 20).
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        List<Board> positions = Positions.randomPositions(count, 20, 1);
+
+        System.out.println("Positions: " + count + ", depth: " + depth + ", threads: " + threads);
+        int[] serialScores = new int[count];
+        int[] parallelScores = new int[count];
+        long serialTime = run("serial", new SearchEngine(), positions, depth, serialScores);
+        long parallelTime;
+        try (ParallelSearchEngine engine = new ParallelSearchEngine(threads, SearchEngine.DEFAULT_TABLE_SIZE_MB)) {
+            parallelTime = run("parallel", engine, positions, depth, parallelScores);
+        }
+        int mismatches = 0;
+        for (int index = 0; index < count; index++) {
+            if (serialScores[index] != parallelScores[index]) {
+                mismatches++;
+                System.out.println("Position " + index + ": serial score " + serialScores[index] +
+                        ", parallel score " + parallelScores[index]);
+            }
+        }
+        System.out.println("Different scores: " + mismatches + " of " + count);
+        System.out.printf("Speedup: %.2f%n", (double) serialTime / Math.max(1, parallelTime));
+    }
+
+
+    /**
+     * Searching all the positions with a searcher and printing the totals.
+     *
+     * @param name      The name of the searcher.
+     * @param searcher  The searcher.
+     * @param positions The positions (the black player is to move).
+     * @param depth     The depth of the search.
+     * @param scores    The array, which gets the scores of the positions.
+     * @return The total time in milliseconds.
+     */
+    private static long run(String name, Searcher searcher, List<Board> positions, int depth, int[] scores) {
+        searcher.search(positions.get(0), Color.BLACK, Math.min(depth, 6), 0);
+        long nodes = 0;
+        long start = System.nanoTime();
+        for (int index = 0; index < positions.size(); index++) {
+            SearchResult result = searcher.search(positions.get(index), Color.BLACK, depth, 0);
+            scores[index] = result.getScore();
+            nodes += result.getNodes();
+        }
+        long time = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println(name + ": " + time + " ms, " + nodes + " nodes, " + nodes * 1000 / time + " nodes/s");
+        return time;
+    }
+}
@@ -0,0 +1,223 @@
+package reversi.tools;
+
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Tool, which counts the leaves of the game tree to a fixed depth from the starting position (perft), checks
+ * the counts against the known values and prints the speed. It is the gate for any change of the move
+ * generation of the board.
+ * A pass counts as a move (when the player cannot put a disk, but the opponent can), and a finished game counts
+ * as one leaf, even if it is reached before the depth.
+ * The counting can use the bitboards with the moves made and taken back in place (the "fast" mode) or the
+ * public methods {@link Board#getPossibleMoves(Color)} and {@link Board#putNewDisk(Color, Point)} on copies of
+ * the board (the "api" mode). With several threads the positions after the first two plies are split between
+ * the threads.
+ */
+public class Perft {
+
+    /**
+     * The known numbers of leaves at the depths 1 to 11 (index 0 is depth 0).
+     */
+    private static final long[] REFERENCE = {
+            1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288, 24571284, 212258800L
+    };
+
+    /**
+     * The number of plies expanded before the positions are split between the threads.
+     */
+    private static final int SPLIT_PLIES = 2;
+
+    /**
+     * The starting point of the tool. Exits with the status 1 if any count differs from the known value.
+     *
+     * @param args Args: the maximal depth (default 9), the number of threads (default 1) and the mode
+     *             ("fast" or "api", default "fast").
+     * @throws Exception If a thread fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        boolean api = args.length > 2 && args[2].equals("api");
+        System.out.println("Depth: " + maxDepth + ", threads: " + threads + ", mode: " + (api ? "api" : "fast"));
+        boolean correct = true;
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                long start = System.nanoTime();
+                long nodes = executor != null ? parallelPerft(depth, api, executor) :
+                        count(new Board(), Color.BLACK, depth, api);
+                long nanos = Math.max(1, System.nanoTime() - start);
+                String check = depth >= REFERENCE.length ? "no reference" :
+                        nodes == REFERENCE[depth] ? "OK" : "MISMATCH (expected " + REFERENCE[depth] + ")";
+                correct &= depth >= REFERENCE.length || nodes == REFERENCE[depth];
+                System.out.printf("perft(%d) = %d, %d ms, %.0f nodes/s, %s%n", depth, nodes, nanos / 1_000_000,
+                        nodes * 1e9 / nanos, check);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+        if (!correct) {
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Counting the leaves with the positions after the first plies split between the threads.
+     *
+     * @param depth    The depth.
+     * @param api      Whether the public methods of the board are used.
+     * @param executor The thread pool.
+     * @return The number of leaves.
+     * @throws Exception If a thread fails.
+     */
+    static long parallelPerft(int depth, boolean api, ExecutorService executor) throws Exception {
+        int split = Math.min(SPLIT_PLIES, depth);
+        List<Board> boards = new ArrayList<>();
+        List<Color> colors = new ArrayList<>();
+        long leaves = expand(new Board(), Color.BLACK, split, boards, colors);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int index = 0; index < boards.size(); index++) {
+            Board board = boards.get(index);
+            Color color = colors.get(index);
+            futures.add(executor.submit(() -> count(board, color, depth - split, api)));
+        }
+        for (Future<Long> future : futures) {
+            leaves += future.get();
+        }
+        return leaves;
+    }
+
+
+    /**
+     * Collecting the positions at the given depth (the finished games before it are counted as leaves).
+     *
+     * @param board  The board.
+     * @param color  The color of the player to move.
+     * @param depth  The remaining depth.
+     * @param boards The list, where the positions are added.
+     * @param colors The list, where the colors of the players to move are added.
+     * @return The number of the finished games reached before the depth.
+     */
+    private static long expand(Board board, Color color, int depth, List<Board> boards, List<Color> colors) {
+        if (depth == 0) {
+            boards.add(board);
+            colors.add(color);
+            return 0;
+        }
+        long moves = board.getPossibleMovesMask(color);
+        if (moves == 0) {
+            if (board.getPossibleMovesMask(color.opposite()) == 0) {
+                return 1;
+            }
+            return expand(board, color.opposite(), depth - 1, boards, colors);
+        }
+        long leaves = 0;
+        UndoRecord undo = new UndoRecord();
+        while (moves != 0) {
+            Board child = new Board(board);
+            child.makeMove(color, Long.numberOfTrailingZeros(moves), undo);
+            moves &= moves - 1;
+            leaves += expand(child, color.opposite(), depth - 1, boards, colors);
+        }
+        return leaves;
+    }
+
+
+    /**
+     * Counting the leaves in the chosen mode.
+     *
+     * @param board The board (not changed).
+     * @param color The color of the player to move.
+     * @param depth The depth.
+     * @param api   Whether the public methods of the board are used.
+     * @return The number of leaves.
+     */
+    private static long count(Board board, Color color, int depth, boolean api) {
+        if (api) {
+            return perftApi(board, color, depth);
+        }
+        UndoRecord[] undoStack = new UndoRecord[depth + 1];
+        for (int ply = 0; ply <= depth; ply++) {
+            undoStack[ply] = new UndoRecord();
+        }
+        return perft(new Board(board), color, depth, undoStack);
+    }
+
+
+    /**
+     * Counting the leaves with the bitboards, the moves made and taken back in place.
+     *
+     * @param board     The board (changed during the counting and restored at the end).
+     * @param color     The color of the player to move.
+     * @param depth     The remaining depth.
+     * @param undoStack The records of the moves, one per remaining depth.
+     * @return The number of leaves.
+     */
+    public static long perft(Board board, Color color, int depth, UndoRecord[] undoStack) {
+        if (depth == 0) {
+            return 1;
+        }
+        long moves = board.getPossibleMovesMask(color);
+        if (moves == 0) {
+            if (board.getPossibleMovesMask(color.opposite()) == 0) {
+                return 1;
+            }
+            return perft(board, color.opposite(), depth - 1, undoStack);
+        }
+        if (depth == 1) {
+            return Long.bitCount(moves);
+        }
+        long leaves = 0;
+        UndoRecord undo = undoStack[depth];
+        while (moves != 0) {
+            board.makeMove(color, Long.numberOfTrailingZeros(moves), undo);
+            moves &= moves - 1;
+            leaves += perft(board, color.opposite(), depth - 1, undoStack);
+            board.unmakeMove(undo);
+        }
+        return leaves;
+    }
+
+
+    /**
+     * Counting the leaves with the public methods of the board: the possible moves as positions and the disks
+     * put on copies of the board.
+     *
+     * @param board The board (not changed).
+     * @param color The color of the player to move.
+     * @param depth The remaining depth.
+     * @return The number of leaves.
+     */
+    public static long perftApi(Board board, Color color, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        List<Point> moves = new ArrayList<>(board.getPossibleMoves(color));
+        if (moves.isEmpty()) {
+            if (board.getPossibleMoves(color.opposite()).isEmpty()) {
+                return 1;
+            }
+            return perftApi(board, color.opposite(), depth - 1);
+        }
+        long leaves = 0;
+        for (Point move : moves) {
+            Board child = new Board(board);
+            child.putNewDisk(color, move);
+            leaves += perftApi(child, color.opposite(), depth - 1);
+        }
+        return leaves;
+    }
+}
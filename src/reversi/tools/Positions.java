@@ -0,0 +1,50 @@
+package reversi.tools;
+
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Class for creating reproducible sets of test positions for the tools.
+ */
+public class Positions {
+
+    /**
+     * Creating positions by playing random moves from the starting board.
+     * Only games without passes are kept, so the black player is to move in every position.
+     *
+     * @param count The number of positions.
+     * @param plies The number of random moves (even).
+     * @param seed  The seed of the random moves.
+     * @return The positions with the black player to move.
+     */
+    public static List<Board> randomPositions(int count, int plies, long seed) {
+        Random random = new Random(seed);
+        List<Board> positions = new ArrayList<>(count);
+        while (positions.size() < count) {
+            Board board = new Board();
+            Color color = Color.BLACK;
+            boolean played = true;
+            for (int ply = 0; ply < plies && played; ply++) {
+                long moves = board.getPossibleMovesMask(color);
+                if (moves == 0) {
+                    played = false;
+                } else {
+                    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                        moves &= moves - 1;
+                    }
+                    board.putNewDisk(color, Board.toPoint(Long.numberOfTrailingZeros(moves)));
+                    color = color.opposite();
+                }
+            }
+            if (played && color == Color.BLACK && board.getPossibleMovesMask(color) != 0) {
+                positions.add(board);
+            }
+        }
+        return positions;
+    }
+}
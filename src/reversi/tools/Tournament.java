@@ -0,0 +1,698 @@
+package reversi.tools;
+
+import reversi.logic.EndgameSolver;
+import reversi.logic.Evaluator;
+import reversi.logic.MctsSearch;
+import reversi.logic.PatternEvaluator;
+import reversi.logic.SearchEngine;
+import reversi.logic.SearchResult;
+import reversi.logic.Searcher;
+import reversi.logic.SquareEvaluator;
+import reversi.logic.TranspositionTable;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Tool, which plays a headless tournament between two configurations of the robot on a thread pool.
+ * Every opening is played twice, with the colors swapped. The tool reports the wins, losses and draws of the
+ * first configuration, the difference of the Elo ratings with its 95% confidence interval, the games per second
+ * and the average time of a move, and can stop early by the sequential probability ratio test (SPRT).
+ * A configuration is a list of settings, for example "depth=6,time=0,endgame=14,eval=pattern,hash=16":
+ * the depth of the search, its time budget in milliseconds, the number of empty cells solved exactly, the
+ * evaluator (pattern or square) and the size of the transposition table in megabytes.
+ * With "engine=mcts" the moves are searched by the Monte Carlo tree search instead, with "playouts=N" playouts
+ * per move (or the time budget), and the evaluator (pattern, square or none) gives the priors of its tree.
+ * With "ttstats=true" the transposition tables of a configuration keep their counters, and the report shows
+ * the probes, the hits, the collisions and the overwrites of its tables, so the size of the table ("hash") can
+ * be chosen by comparing a few runs.
+ */
+public class Tournament {
+
+    /**
+     * The lower bound of the log-likelihood ratio of the SPRT (accepting that the first configuration
+     * is not stronger), for the error rates of 5%.
+     */
+    private static final double SPRT_LOWER = Math.log(0.05 / 0.95);
+
+    /**
+     * The upper bound of the log-likelihood ratio of the SPRT (accepting that the first configuration
+     * is stronger), for the error rates of 5%.
+     */
+    private static final double SPRT_UPPER = Math.log(0.95 / 0.05);
+
+    /**
+     * The number of random moves of the generated openings.
+     */
+    private static final int OPENING_PLIES = 8;
+
+    /**
+     * The first configuration.
+     */
+    private final Config first;
+
+    /**
+     * The second configuration.
+     */
+    private final Config second;
+
+    /**
+     * The Elo difference of the null hypothesis of the SPRT (NaN for no SPRT).
+     */
+    private final double elo0;
+
+    /**
+     * The Elo difference of the alternative hypothesis of the SPRT.
+     */
+    private final double elo1;
+
+    /**
+     * The results of the finished games.
+     */
+    private final Stats stats = new Stats();
+
+    /**
+     * Whether the tournament was stopped by the SPRT.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * All the players created by the threads of the tournament.
+     */
+    private final List<Player> players = new ArrayList<>();
+
+    /**
+     * Constructor of the tournament.
+     *
+     * @param first  The first configuration.
+     * @param second The second configuration.
+     * @param elo0   The Elo difference of the null hypothesis of the SPRT (NaN for no SPRT).
+     * @param elo1   The Elo difference of the alternative hypothesis of the SPRT.
+     */
+    public Tournament(Config first, Config second, double elo0, double elo1) {
+        this.first = first;
+        this.second = second;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+    }
+
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: the first configuration, the second configuration, the number of games (default 100),
+     *             the number of threads (default: all the processors), the opening file (one opening per line
+     *             in the standard notation, for example "f5d6c3"; "-" for random openings), and the two Elo
+     *             differences of the SPRT (for example "0 10"; no SPRT if they are missing).
+     * @throws Exception If the opening file cannot be read.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament first second [games threads openings elo0 elo1]");
+            return;
+        }
+        Config first = Config.parse(args[0]);
+        Config second = Config.parse(args[1]);
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        List<int[]> openings = args.length > 4 && !args[4].equals("-") ? readOpenings(args[4]) :
+                randomOpenings((games + 1) / 2, 1);
+        double elo0 = args.length > 6 ? Double.parseDouble(args[5]) : Double.NaN;
+        double elo1 = args.length > 6 ? Double.parseDouble(args[6]) : Double.NaN;
+        System.out.println("First: " + args[0] + ", second: " + args[1] + ", games: " + games + ", threads: " +
+                threads + ", openings: " + openings.size());
+        new Tournament(first, second, elo0, elo1).run(games, threads, openings);
+    }
+
+
+    /**
+     * Playing the games on a thread pool and printing the report.
+     *
+     * @param games    The number of games.
+     * @param threads  The number of threads.
+     * @param openings The openings (moves from the starting position), used in turn.
+     * @throws Exception If a game fails.
+     */
+    public void run(int games, int threads, List<int[]> openings) throws Exception {
+        ThreadLocal<Player> firstPlayers = ThreadLocal.withInitial(() -> register(first.createPlayer()));
+        ThreadLocal<Player> secondPlayers = ThreadLocal.withInitial(() -> register(second.createPlayer()));
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                int[] opening = openings.get((game / 2) % openings.size());
+                boolean firstIsBlack = game % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    if (stopped) {
+                        return;
+                    }
+                    Player black = firstIsBlack ? firstPlayers.get() : secondPlayers.get();
+                    Player white = firstIsBlack ? secondPlayers.get() : firstPlayers.get();
+                    int result = playGame(opening, black, white);
+                    recordResult(firstIsBlack ? result : -result);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        report((System.nanoTime() - start) / 1e9);
+    }
+
+
+    /**
+     * Method for keeping a new player, so the counters of its tables can be reported.
+     *
+     * @param player The player.
+     * @return The player.
+     */
+    private Player register(Player player) {
+        synchronized (players) {
+            players.add(player);
+        }
+        return player;
+    }
+
+
+    /**
+     * Adding the result of a game and checking the SPRT.
+     *
+     * @param result The difference of the disks from the point of view of the first configuration.
+     */
+    private void recordResult(int result) {
+        synchronized (stats) {
+            if (result > 0) {
+                stats.wins++;
+            } else if (result < 0) {
+                stats.losses++;
+            } else {
+                stats.draws++;
+            }
+            if (!Double.isNaN(elo0) && !stopped) {
+                double llr = stats.logLikelihoodRatio(elo0, elo1);
+                if (llr <= SPRT_LOWER || llr >= SPRT_UPPER) {
+                    stopped = true;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Playing one game from an opening.
+     *
+     * @param opening The moves of the opening.
+     * @param black   The player of the black disks.
+     * @param white   The player of the white disks.
+     * @return The difference of the disks from the point of view of the black player.
+     */
+    private int playGame(int[] opening, Player black, Player white) {
+        Board board = new Board();
+        UndoRecord undo = new UndoRecord();
+        Color color = Color.BLACK;
+        for (int move : opening) {
+            if (board.getPossibleMovesMask(color) == 0) {
+                color = color.opposite();
+            }
+            board.makeMove(color, move, undo);
+            color = color.opposite();
+        }
+        while (true) {
+            if (board.getPossibleMovesMask(color) == 0) {
+                if (board.getPossibleMovesMask(color.opposite()) == 0) {
+                    break;
+                }
+                color = color.opposite();
+                continue;
+            }
+            Player player = color == Color.BLACK ? black : white;
+            long moveStart = System.nanoTime();
+            int move = player.chooseMove(board, color);
+            long moveTime = System.nanoTime() - moveStart;
+            synchronized (stats) {
+                if (player.config == first) {
+                    stats.firstMoves++;
+                    stats.firstMoveNanos += moveTime;
+                } else {
+                    stats.secondMoves++;
+                    stats.secondMoveNanos += moveTime;
+                }
+            }
+            board.makeMove(color, move, undo);
+            color = color.opposite();
+        }
+        return board.countDisks(Color.BLACK) - board.countDisks(Color.WHITE);
+    }
+
+
+    /**
+     * Printing the results of the tournament.
+     *
+     * @param seconds The duration of the tournament in seconds.
+     */
+    private void report(double seconds) {
+        synchronized (stats) {
+            int games = stats.games();
+            System.out.println("Games: " + games + ", W/L/D: " + stats.wins + "/" + stats.losses + "/" + stats.draws);
+            double score = stats.score();
+            double error = 1.96 * Math.sqrt(stats.variance() / Math.max(1, games));
+            System.out.printf("Score: %.1f%%, Elo: %.1f [%.1f, %.1f]%n", 100 * score, elo(score),
+                    elo(score - error), elo(score + error));
+            System.out.printf("Games/s: %.2f, average move: first %.2f ms, second %.2f ms%n", games / seconds,
+                    stats.firstMoveNanos / 1e6 / Math.max(1, stats.firstMoves),
+                    stats.secondMoveNanos / 1e6 / Math.max(1, stats.secondMoves));
+            if (!Double.isNaN(elo0)) {
+                double llr = stats.logLikelihoodRatio(elo0, elo1);
+                String verdict = llr >= SPRT_UPPER ? "H1 accepted" : llr <= SPRT_LOWER ? "H0 accepted" :
+                        "inconclusive";
+                System.out.printf("SPRT [%.1f, %.1f]: LLR %.2f (bounds %.2f, %.2f), %s%n", elo0, elo1, llr,
+                        SPRT_LOWER, SPRT_UPPER, verdict);
+            }
+        }
+        reportTables("first", first);
+        reportTables("second", second);
+    }
+
+
+    /**
+     * Printing the counters of the transposition tables of a configuration, summed over its players, if the
+     * configuration keeps them.
+     *
+     * @param name   The name of the configuration.
+     * @param config The configuration.
+     */
+    private void reportTables(String name, Config config) {
+        if (!config.tableStatistics) {
+            return;
+        }
+        List<TranspositionTable> searchTables = new ArrayList<>();
+        List<TranspositionTable> solverTables = new ArrayList<>();
+        synchronized (players) {
+            for (Player player : players) {
+                if (player.config == config) {
+                    if (player.searchTable != null) {
+                        searchTables.add(player.searchTable);
+                    }
+                    solverTables.add(player.solverTable);
+                }
+            }
+        }
+        printTables(name + " search", config.tableSizeMb, searchTables);
+        printTables(name + " endgame", config.tableSizeMb, solverTables);
+    }
+
+
+    /**
+     * Printing the summed counters of the tables.
+     *
+     * @param name        The name of the tables.
+     * @param tableSizeMb The size of a table (in megabytes).
+     * @param tables      The tables.
+     */
+    private static void printTables(String name, int tableSizeMb, List<TranspositionTable> tables) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        long probes = 0;
+        long hits = 0;
+        long collisions = 0;
+        long overwrites = 0;
+        for (TranspositionTable table : tables) {
+            probes += table.getProbes();
+            hits += table.getHits();
+            collisions += table.getCollisions();
+            overwrites += table.getOverwrites();
+        }
+        double percent = 100.0 / Math.max(1, probes);
+        System.out.printf("Table %s (%d MB, %d entries, %d tables): probes %d, hits %d (%.1f%%), " +
+                        "collisions %d (%.1f%%), overwrites %d%n", name, tableSizeMb, tables.get(0).getCapacity(),
+                tables.size(), probes, hits, hits * percent, collisions, collisions * percent, overwrites);
+    }
+
+
+    /**
+     * Converting an expected score to the difference of the Elo ratings.
+     *
+     * @param score The expected score (between 0 and 1).
+     * @return The Elo difference.
+     */
+    static double elo(double score) {
+        double clamped = Math.max(1e-6, Math.min(1 - 1e-6, score));
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+
+    /**
+     * Converting the difference of the Elo ratings to the expected score.
+     *
+     * @param elo The Elo difference.
+     * @return The expected score.
+     */
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+
+    /**
+     * Reading the openings from a file: one opening per line, as the moves in the standard notation
+     * (the letter of the column and the number of the row, for example "f5d6c3"). Empty lines and the lines
+     * starting with # are skipped.
+     *
+     * @param path The path of the file.
+     * @return The openings as the indices of the cells.
+     * @throws IOException If the file cannot be read.
+     */
+    static List<int[]> readOpenings(String path) throws IOException {
+        List<int[]> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path))) {
+            String moves = line.trim().toLowerCase();
+            if (moves.isEmpty() || moves.startsWith("#")) {
+                continue;
+            }
+            int[] opening = new int[moves.length() / 2];
+            for (int index = 0; index < opening.length; index++) {
+                int column = moves.charAt(2 * index) - 'a';
+                int row = moves.charAt(2 * index + 1) - '1';
+                if (column < 0 || column > 7 || row < 0 || row > 7) {
+                    throw new IOException("Wrong move in the opening: " + line);
+                }
+                opening[index] = Board.toSquare(row, column);
+            }
+            openings.add(opening);
+        }
+        if (openings.isEmpty()) {
+            throw new IOException("No openings in " + path);
+        }
+        return openings;
+    }
+
+
+    /**
+     * Creating random openings of {@link #OPENING_PLIES} moves.
+     *
+     * @param count The number of openings.
+     * @param seed  The seed of the random moves.
+     * @return The openings as the indices of the cells.
+     */
+    static List<int[]> randomOpenings(int count, long seed) {
+        Random random = new Random(seed);
+        List<int[]> openings = new ArrayList<>(count);
+        UndoRecord undo = new UndoRecord();
+        while (openings.size() < count) {
+            Board board = new Board();
+            Color color = Color.BLACK;
+            int[] opening = new int[OPENING_PLIES];
+            boolean played = true;
+            for (int ply = 0; ply < OPENING_PLIES && played; ply++) {
+                long moves = board.getPossibleMovesMask(color);
+                if (moves == 0) {
+                    played = false;
+                } else {
+                    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                        moves &= moves - 1;
+                    }
+                    opening[ply] = Long.numberOfTrailingZeros(moves);
+                    board.makeMove(color, opening[ply], undo);
+                    color = color.opposite();
+                }
+            }
+            if (played) {
+                openings.add(opening);
+            }
+        }
+        return openings;
+    }
+
+
+    /**
+     * Class of a configuration of the robot.
+     */
+    public static class Config {
+
+        /**
+         * The depth of the search (in plies).
+         */
+        private int depth = 6;
+
+        /**
+         * The time budget of a move (in milliseconds, 0 for no limit).
+         */
+        private long timeMillis;
+
+        /**
+         * The largest number of empty cells, at which the game is solved exactly (0 to never solve).
+         */
+        private int endgameEmpties = EndgameSolver.DEFAULT_EMPTIES;
+
+        /**
+         * The evaluator: "pattern" or "square".
+         */
+        private String evaluator = "pattern";
+
+        /**
+         * The size of the transposition table (in megabytes).
+         */
+        private int tableSizeMb = SearchEngine.DEFAULT_TABLE_SIZE_MB;
+
+        /**
+         * The search of the moves: "alphabeta" or "mcts".
+         */
+        private String engine = "alphabeta";
+
+        /**
+         * The number of playouts of a move of the Monte Carlo tree search (0 to use the time budget).
+         */
+        private long playouts;
+
+        /**
+         * Whether the transposition tables keep their counters (see {@link TranspositionTable#isStatistics()}).
+         */
+        private boolean tableStatistics;
+
+
+        /**
+         * Reading a configuration from its settings.
+         *
+         * @param settings The settings separated by commas, for example "depth=6,eval=square".
+         * @return The configuration.
+         */
+        public static Config parse(String settings) {
+            Map<String, String> values = new HashMap<>();
+            for (String setting : settings.split(",")) {
+                String[] parts = setting.split("=", 2);
+                if (parts.length == 2) {
+                    values.put(parts[0].trim(), parts[1].trim());
+                } else if (!setting.isBlank()) {
+                    throw new IllegalArgumentException("Wrong setting: " + setting);
+                }
+            }
+            Config config = new Config();
+            config.depth = Integer.parseInt(values.getOrDefault("depth", String.valueOf(config.depth)));
+            config.timeMillis = Long.parseLong(values.getOrDefault("time", String.valueOf(config.timeMillis)));
+            config.endgameEmpties = Integer.parseInt(values.getOrDefault("endgame",
+                    String.valueOf(config.endgameEmpties)));
+            config.evaluator = values.getOrDefault("eval", config.evaluator);
+            config.tableSizeMb = Integer.parseInt(values.getOrDefault("hash", String.valueOf(config.tableSizeMb)));
+            config.engine = values.getOrDefault("engine", config.engine);
+            config.playouts = Long.parseLong(values.getOrDefault("playouts", String.valueOf(config.playouts)));
+            config.tableStatistics = Boolean.parseBoolean(values.getOrDefault("ttstats", "false"));
+            return config;
+        }
+
+
+        /**
+         * Creating a player of this configuration (for one thread).
+         *
+         * @return The new player.
+         */
+        Player createPlayer() {
+            TranspositionTable solverTable = new TranspositionTable(tableSizeMb, tableStatistics);
+            EndgameSolver solver = new EndgameSolver(solverTable);
+            if (engine.equals("mcts")) {
+                MctsSearch search = new MctsSearch(1, MctsSearch.DEFAULT_MAX_NODES, evaluator.equals("none") ? null :
+                        evaluator.equals("square") ? SquareEvaluator::new : PatternEvaluator::new);
+                search.setPlayoutBudget(playouts);
+                return new Player(this, search, solver, null, solverTable);
+            }
+            Evaluator evaluation = evaluator.equals("square") ? new SquareEvaluator() : new PatternEvaluator();
+            TranspositionTable searchTable = new TranspositionTable(tableSizeMb, tableStatistics);
+            return new Player(this, new SearchEngine(searchTable, evaluation), solver, searchTable, solverTable);
+        }
+    }
+
+
+    /**
+     * Class of a player of the tournament: the search engine and the endgame solver of a configuration,
+     * used by one thread.
+     */
+    private static class Player {
+
+        /**
+         * The configuration of the player.
+         */
+        private final Config config;
+
+        /**
+         * The search of the middle game.
+         */
+        private final Searcher engine;
+
+        /**
+         * The exact solver of the endgame.
+         */
+        private final EndgameSolver solver;
+
+        /**
+         * The transposition table of the search (null if the search has none).
+         */
+        private final TranspositionTable searchTable;
+
+        /**
+         * The transposition table of the solver.
+         */
+        private final TranspositionTable solverTable;
+
+        Player(Config config, Searcher engine, EndgameSolver solver, TranspositionTable searchTable,
+               TranspositionTable solverTable) {
+            this.config = config;
+            this.engine = engine;
+            this.solver = solver;
+            this.searchTable = searchTable;
+            this.solverTable = solverTable;
+        }
+
+
+        /**
+         * Choosing the move: the exact solve close to the end of the game, the search otherwise.
+         *
+         * @param board The board.
+         * @param color The color of the player to move.
+         * @return The index of the cell.
+         */
+        int chooseMove(Board board, Color color) {
+            int empties = 64 - Long.bitCount(board.getDisks(Color.BLACK) | board.getDisks(Color.WHITE));
+            SearchResult result = null;
+            if (empties <= config.endgameEmpties) {
+                result = solver.solve(board, color, false, config.timeMillis);
+            }
+            if (result == null) {
+                result = engine.search(board, color, config.depth, config.timeMillis);
+            }
+            return result.getMove();
+        }
+    }
+
+
+    /**
+     * Class of the results of the finished games, from the point of view of the first configuration.
+     */
+    private static class Stats {
+
+        /**
+         * The number of won games.
+         */
+        private int wins;
+
+        /**
+         * The number of lost games.
+         */
+        private int losses;
+
+        /**
+         * The number of drawn games.
+         */
+        private int draws;
+
+        /**
+         * The number of moves of the first configuration.
+         */
+        private long firstMoves;
+
+        /**
+         * The total time of the moves of the first configuration (in nanoseconds).
+         */
+        private long firstMoveNanos;
+
+        /**
+         * The number of moves of the second configuration.
+         */
+        private long secondMoves;
+
+        /**
+         * The total time of the moves of the second configuration (in nanoseconds).
+         */
+        private long secondMoveNanos;
+
+
+        /**
+         * Get the number of finished games.
+         *
+         * @return The number of games.
+         */
+        int games() {
+            return wins + losses + draws;
+        }
+
+
+        /**
+         * Get the average score of a game (1 for a win, 0.5 for a draw, 0 for a loss).
+         *
+         * @return The average score (0.5 if no game was played).
+         */
+        double score() {
+            return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+        }
+
+
+        /**
+         * Get the variance of the score of a game.
+         *
+         * @return The variance.
+         */
+        double variance() {
+            if (games() == 0) {
+                return 0.25;
+            }
+            double score = score();
+            return (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) +
+                    losses * Math.pow(score, 2)) / games();
+        }
+
+
+        /**
+         * Computing the log-likelihood ratio of the two hypotheses of the SPRT
+         * (the normal approximation of the distribution of the scores).
+         *
+         * @param elo0 The Elo difference of the null hypothesis.
+         * @param elo1 The Elo difference of the alternative hypothesis.
+         * @return The log-likelihood ratio (0 while the variance is unknown).
+         */
+        double logLikelihoodRatio(double elo0, double elo1) {
+            double variance = variance();
+            if (games() < 2 || variance <= 0) {
+                return 0;
+            }
+            double score0 = expectedScore(elo0);
+            double score1 = expectedScore(elo1);
+            return games() * (score1 - score0) * (2 * score() - score0 - score1) / (2 * variance);
+        }
+    }
+}
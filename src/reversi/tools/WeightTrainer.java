@@ -0,0 +1,290 @@
+package reversi.tools;
+
+import reversi.logic.EndgameSolver;
+import reversi.logic.PatternEvaluator;
+import reversi.logic.PatternWeights;
+import reversi.logic.SearchEngine;
+import reversi.logic.TranspositionTable;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Tool, which trains the weights of the {@link PatternEvaluator} offline, in two steps.
+ * The generate step plays games of the robot against itself on all the processors: the first moves are random,
+ * the middle game is played by shallow searches and the endgame is solved exactly, so every position of a game
+ * is labelled with the exact final difference of the disks. The positions are appended to a binary file
+ * (18 bytes each: the black disks, the white disks, the player to move and the label), so the file can hold
+ * tens of millions of positions.
+ * The train step fits the weights by stochastic gradient descent of the squared error, reading the file
+ * sequentially in every epoch, so the positions are never kept on the heap. The weights are written to a file,
+ * which is shipped as the resource {@link PatternWeights#RESOURCE} (or given to the robot by the system property
+ * {@link PatternWeights#WEIGHTS_PROPERTY}, see {@link PatternWeights#getDefault()}).
+ */
+public class WeightTrainer {
+
+    /**
+     * The size of a position in the file (in bytes).
+     */
+    private static final int RECORD_BYTES = 18;
+
+    /**
+     * The number of random moves at the start of every game.
+     */
+    private static final int RANDOM_PLIES = 10;
+
+    /**
+     * The number of empty cells, from which the games are solved exactly.
+     */
+    private static final int EXACT_EMPTIES = 14;
+
+    /**
+     * The number of units of the evaluation per disk in the written weights.
+     */
+    private static final int DISC_SCALE = 16;
+
+    /**
+     * The size of the buffers of the position file.
+     */
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    /**
+     * The starting point of the tool.
+     *
+     * @param args Args: "generate" with the position file (default positions.bin), the number of games
+     *             (default 1000), the depth of the searches (default 4) and the number of threads (default: all
+     *             the processors); or "train" with the position file (default positions.bin), the weight file
+     *             (default weights.bin), the number of epochs (default 10) and the learning rate (default 0.002).
+     * @throws Exception If the files cannot be read or written.
+     */
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "";
+        Path positions = Paths.get(args.length > 1 ? args[1] : "positions.bin");
+        if (command.equals("generate")) {
+            int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+            int depth = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+            int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+            generate(positions, games, depth, threads);
+        } else if (command.equals("train")) {
+            Path weights = Paths.get(args.length > 2 ? args[2] : "weights.bin");
+            int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+            double rate = args.length > 4 ? Double.parseDouble(args[4]) : 0.002;
+            train(positions, weights, epochs, rate);
+        } else {
+            System.out.println("Usage: WeightTrainer generate [positions games depth threads]");
+            System.out.println("       WeightTrainer train [positions weights epochs rate]");
+        }
+    }
+
+
+    /**
+     * Playing the self-play games on a thread pool and appending their positions to the file.
+     *
+     * @param path    The position file.
+     * @param games   The number of games.
+     * @param depth   The depth of the searches of the middle game.
+     * @param threads The number of threads.
+     * @throws Exception If the file cannot be written.
+     */
+    private static void generate(Path path, int games, int depth, int threads) throws Exception {
+        System.out.println("Games: " + games + ", depth: " + depth + ", threads: " + threads);
+        long start = System.nanoTime();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_BYTES))) {
+            ThreadLocal<SearchEngine> engines = ThreadLocal.withInitial(() ->
+                    new SearchEngine(new TranspositionTable(4)));
+            ThreadLocal<EndgameSolver> solvers = ThreadLocal.withInitial(() ->
+                    new EndgameSolver(new TranspositionTable(4)));
+            List<Future<?>> futures = new ArrayList<>();
+            for (int game = 0; game < games; game++) {
+                long seed = System.nanoTime() ^ ((long) game << 32);
+                futures.add(executor.submit(() -> {
+                    List<long[]> records = playGame(engines.get(), solvers.get(), new Random(seed), depth);
+                    synchronized (output) {
+                        for (long[] record : records) {
+                            output.writeLong(record[0]);
+                            output.writeLong(record[1]);
+                            output.writeByte((int) record[2]);
+                            output.writeByte((int) record[3]);
+                        }
+                    }
+                    written.addAndGet(records.size());
+                    int count = done.incrementAndGet();
+                    if (count % 100 == 0) {
+                        System.out.println(count + " games, " + written.get() + " positions");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long time = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println(written.get() + " positions appended to " + path + " in " + time + " ms (" +
+                done.get() * 1000L / time + " games/s)");
+    }
+
+
+    /**
+     * Playing one self-play game.
+     *
+     * @param engine The search engine of the middle game.
+     * @param solver The endgame solver.
+     * @param random The source of the random opening moves.
+     * @param depth  The depth of the searches of the middle game.
+     * @return The positions after the random opening: the black disks, the white disks, the player to move
+     * (0 for black, 1 for white) and the final difference of the disks (black minus white).
+     */
+    private static List<long[]> playGame(SearchEngine engine, EndgameSolver solver, Random random, int depth) {
+        Board board = new Board();
+        Color color = Color.BLACK;
+        UndoRecord undo = new UndoRecord();
+        List<long[]> records = new ArrayList<>();
+        for (int ply = 0; ; ply++) {
+            long moves = board.getPossibleMovesMask(color);
+            if (moves == 0) {
+                if (board.getPossibleMovesMask(color.opposite()) == 0) {
+                    break;
+                }
+                color = color.opposite();
+                continue;
+            }
+            long black = board.getDisks(Color.BLACK);
+            long white = board.getDisks(Color.WHITE);
+            int empties = 64 - Long.bitCount(black | white);
+            int move;
+            if (ply < RANDOM_PLIES) {
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                    moves &= moves - 1;
+                }
+                move = Long.numberOfTrailingZeros(moves);
+            } else {
+                records.add(new long[]{black, white, color == Color.BLACK ? 0 : 1, 0});
+                if (empties <= EXACT_EMPTIES) {
+                    move = solver.solve(board, color, false, 0).getMove();
+                } else {
+                    move = engine.search(board, color, depth, 0).getMove();
+                }
+            }
+            board.makeMove(color, move, undo);
+            color = color.opposite();
+        }
+        int result = board.countDisks(Color.BLACK) - board.countDisks(Color.WHITE);
+        for (long[] record : records) {
+            record[3] = result;
+        }
+        return records;
+    }
+
+
+    /**
+     * Fitting the weights to the positions of the file and writing them.
+     * The prediction of a position is the sum of the weights of its pattern configurations, the mobility term
+     * and the parity term (from the point of view of the black player, in disks); every epoch reads the file once
+     * and moves the weights of each position against the gradient of its squared error.
+     *
+     * @param positions The position file.
+     * @param output    The weight file.
+     * @param epochs    The number of passes over the positions.
+     * @param rate      The learning rate.
+     * @throws IOException If the files cannot be read or written.
+     */
+    private static void train(Path positions, Path output, int epochs, double rate) throws IOException {
+        long count = Files.size(positions) / RECORD_BYTES;
+        System.out.println("Positions: " + count + ", epochs: " + epochs + ", rate: " + rate);
+        int phases = PatternWeights.PHASES;
+        int instances = PatternEvaluator.getInstanceCount();
+        int[] offsets = new int[instances];
+        for (int instance = 0; instance < instances; instance++) {
+            offsets[instance] = PatternEvaluator.patternOffset(PatternEvaluator.getPatternOf(instance));
+        }
+        int tableSize = PatternEvaluator.patternOffset(PatternEvaluator.getPatternCount());
+        float[][] tables = new float[phases][tableSize];
+        float[] mobility = new float[phases];
+        float[] parity = new float[phases];
+        int[] indices = new int[instances];
+        // The mobility difference is up to about 20 per position, so its weight moves more slowly.
+        double mobilityRate = rate / 100;
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            long start = System.nanoTime();
+            double squaredError = 0;
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(positions), BUFFER_BYTES))) {
+                for (long record = 0; record < count; record++) {
+                    long black = input.readLong();
+                    long white = input.readLong();
+                    int side = input.readByte() == 0 ? 1 : -1;
+                    int label = input.readByte();
+                    int empties = 64 - Long.bitCount(black | white);
+                    int phase = PatternWeights.phaseOf(empties);
+                    float[] table = tables[phase];
+                    PatternEvaluator.computeIndices(black, white, indices);
+                    int mobilityDifference = Long.bitCount(Board.generateMoves(black, white)) -
+                            Long.bitCount(Board.generateMoves(white, black));
+                    int parityFeature = side * ((empties & 1) == 1 ? 1 : -1);
+                    double prediction = mobility[phase] * mobilityDifference + parity[phase] * parityFeature;
+                    for (int instance = 0; instance < instances; instance++) {
+                        prediction += table[offsets[instance] + indices[instance]];
+                    }
+                    double error = label - prediction;
+                    squaredError += error * error;
+                    float step = (float) (rate * error);
+                    for (int instance = 0; instance < instances; instance++) {
+                        table[offsets[instance] + indices[instance]] += step;
+                    }
+                    mobility[phase] += (float) (mobilityRate * error * mobilityDifference);
+                    parity[phase] += (float) (rate * error * parityFeature);
+                }
+            }
+            System.out.printf("Epoch %d: RMS error %.3f disks, %d ms%n", epoch,
+                    Math.sqrt(squaredError / Math.max(1, count)), (System.nanoTime() - start) / 1_000_000);
+        }
+        short[][] quantizedTables = new short[phases][tableSize];
+        short[] quantizedMobility = new short[phases];
+        short[] quantizedParity = new short[phases];
+        for (int phase = 0; phase < phases; phase++) {
+            for (int index = 0; index < tableSize; index++) {
+                quantizedTables[phase][index] = quantize(tables[phase][index]);
+            }
+            quantizedMobility[phase] = quantize(mobility[phase]);
+            quantizedParity[phase] = quantize(parity[phase]);
+        }
+        new PatternWeights(quantizedTables, quantizedMobility, quantizedParity).write(output);
+        System.out.println("Weights written to " + output);
+    }
+
+
+    /**
+     * Converting a weight in disks to the units of the evaluation.
+     *
+     * @param weight The weight in disks.
+     * @return The quantized weight.
+     */
+    private static short quantize(float weight) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(weight * DISC_SCALE)));
+    }
+}
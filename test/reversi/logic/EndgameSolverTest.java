@@ -0,0 +1,124 @@
+package reversi.logic;
+
+import org.junit.jupiter.api.Test;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+
+/**
+ * Tests of the endgame solver against a plain negamax over the whole game tree, on random positions near the end
+ * of the game.
+ */
+class EndgameSolverTest {
+
+    /**
+     * The number of tested positions.
+     */
+    private static final int POSITIONS = 60;
+
+    /**
+     * The number of the empty cells of the tested positions.
+     */
+    private static final int EMPTIES = 9;
+
+
+    /**
+     * Checks the exact scores and the win-loss-draw results, and that the chosen move reaches the exact score.
+     */
+    @Test
+    void solverAgreesWithBruteForce() {
+        Random random = new Random(7);
+        EndgameSolver solver = new EndgameSolver();
+        for (int position = 0; position < POSITIONS; position++) {
+            Board board = randomPosition(random);
+            Color color = position % 2 == 0 ? Color.BLACK : Color.WHITE;
+            long player = board.getDisks(color);
+            long opponent = board.getDisks(color.opposite());
+            if (Board.generateMoves(player, opponent) == 0) {
+                color = color.opposite();
+                player = board.getDisks(color);
+                opponent = board.getDisks(color.opposite());
+            }
+            int expected = bruteForce(player, opponent, false);
+
+            SearchResult exact = solver.solve(board, color, false, 0);
+            assertNotNull(exact);
+            assertEquals(expected, exact.getScore(), "exact score of " + board);
+            assertNotEquals(Board.PASS, exact.getMove());
+            long flips = Board.computeFlips(player, opponent, exact.getMove());
+            assertNotEquals(0, flips);
+            assertEquals(expected, -bruteForce(opponent & ~flips, player | flips | (1L << exact.getMove()), false),
+                    "score of the chosen move of " + board);
+
+            SearchResult winLossDraw = solver.solve(board, color, true, 0);
+            assertNotNull(winLossDraw);
+            assertEquals(Integer.signum(expected), winLossDraw.getScore(), "win-loss-draw result of " + board);
+        }
+    }
+
+
+    /**
+     * Playing random moves from the starting position until the given number of empty cells is left, with at
+     * least one player able to move.
+     *
+     * @param random The source of the moves.
+     * @return The board.
+     */
+    private static Board randomPosition(Random random) {
+        while (true) {
+            Board board = new Board();
+            Color color = Color.BLACK;
+            int passes = 0;
+            while (passes < 2 && board.countEmpties() > EMPTIES) {
+                long moves = board.getPossibleMovesMask(color);
+                if (moves == 0) {
+                    passes++;
+                } else {
+                    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                        moves &= moves - 1;
+                    }
+                    int square = Long.numberOfTrailingZeros(moves);
+                    board.applyMove(color, square, board.getFlips(color, square));
+                    passes = 0;
+                }
+                color = color.opposite();
+            }
+            long moves = board.getPossibleMovesMask(Color.BLACK) | board.getPossibleMovesMask(Color.WHITE);
+            if (passes < 2 && moves != 0) {
+                return board;
+            }
+        }
+    }
+
+
+    /**
+     * Scoring a position by visiting the whole game tree.
+     *
+     * @param player   The disks of the player to move.
+     * @param opponent The disks of the opponent.
+     * @param passed   Whether the opponent has just passed.
+     * @return The final difference of the disks from the point of view of the player to move.
+     */
+    private static int bruteForce(long player, long opponent, boolean passed) {
+        long moves = Board.generateMoves(player, opponent);
+        if (moves == 0) {
+            if (passed) {
+                return Long.bitCount(player) - Long.bitCount(opponent);
+            }
+            return -bruteForce(opponent, player, true);
+        }
+        int best = Integer.MIN_VALUE;
+        for (; moves != 0; moves &= moves - 1) {
+            int move = Long.numberOfTrailingZeros(moves);
+            long flips = Board.computeFlips(player, opponent, move);
+            best = Math.max(best, -bruteForce(opponent & ~flips, player | flips | (1L << move), false));
+        }
+        return best;
+    }
+}
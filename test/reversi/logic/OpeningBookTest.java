@@ -0,0 +1,125 @@
+package reversi.logic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.Symmetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the opening book with the canonical positions: a position stored once must be found in all its
+ * symmetric forms, with the move mapped to each of them.
+ */
+class OpeningBookTest {
+
+    /**
+     * The number of random positions in the book.
+     */
+    private static final int POSITIONS = 200;
+
+    /**
+     * The directory of the book.
+     */
+    @TempDir
+    Path directory;
+
+
+    /**
+     * Checks the lookups of all the symmetric forms of the stored positions.
+     *
+     * @throws IOException If the book cannot be written or read.
+     */
+    @Test
+    void symmetricPositionsShareEntries() throws IOException {
+        Random random = new Random(13);
+        Board[] boards = new Board[POSITIONS];
+        int[] moves = new int[POSITIONS];
+        SortedMap<Long, SearchResult> entries = new TreeMap<>();
+        for (int position = 0; position < POSITIONS; ) {
+            Board board = position == 0 ? new Board() : randomPosition(random, 1 + random.nextInt(12));
+            int move = randomMove(random, board.getPossibleMovesMask(Color.BLACK));
+            int symmetry = board.getCanonicalSymmetry();
+            // A position reached again (in any of its symmetric forms) keeps its first move.
+            if (entries.putIfAbsent(board.getCanonicalHash(Color.BLACK),
+                    new SearchResult(Symmetry.transformSquare(move, symmetry), position, 1, 0, 0)) == null) {
+                boards[position] = board;
+                moves[position++] = move;
+            }
+        }
+        Path path = directory.resolve("book.bin");
+        OpeningBook.write(path, entries);
+
+        OpeningBook book = new OpeningBook(path);
+        for (int position = 0; position < POSITIONS; position++) {
+            long black = boards[position].getDisks(Color.BLACK);
+            long white = boards[position].getDisks(Color.WHITE);
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                Board mapped = new Board();
+                mapped.setDisks(Symmetry.transform(black, symmetry), Symmetry.transform(white, symmetry));
+                SearchResult result = book.lookup(mapped, Color.BLACK);
+                assertNotNull(result, "position " + position + ", symmetry " + symmetry);
+                // A position with symmetries of its own may get the move of any of them.
+                boolean found = false;
+                for (int other = 0; other < Symmetry.COUNT; other++) {
+                    found |= Symmetry.transform(black, other) == mapped.getDisks(Color.BLACK) &&
+                            Symmetry.transform(white, other) == mapped.getDisks(Color.WHITE) &&
+                            Symmetry.transformSquare(moves[position], other) == result.getMove();
+                }
+                assertTrue(found, "move " + result.getMove() + " of position " + position + ", symmetry " + symmetry);
+            }
+        }
+    }
+
+
+    /**
+     * Playing random moves from the starting position, so the black player is to move at the end.
+     *
+     * @param random The source of the moves.
+     * @param pairs  The number of the moves of each player.
+     * @return The board.
+     */
+    private static Board randomPosition(Random random, int pairs) {
+        while (true) {
+            Board board = new Board();
+            boolean playable = true;
+            for (int ply = 0; ply < 2 * pairs && playable; ply++) {
+                Color color = ply % 2 == 0 ? Color.BLACK : Color.WHITE;
+                long moves = board.getPossibleMovesMask(color);
+                if (moves == 0) {
+                    playable = false;
+                } else {
+                    int square = randomMove(random, moves);
+                    board.applyMove(color, square, board.getFlips(color, square));
+                }
+            }
+            if (playable && board.getPossibleMovesMask(Color.BLACK) != 0) {
+                return board;
+            }
+        }
+    }
+
+
+    /**
+     * Choosing a random move.
+     *
+     * @param random The source of the moves.
+     * @param moves  The mask of the possible moves (not empty).
+     * @return The index of the cell.
+     */
+    private static int randomMove(Random random, long moves) {
+        for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+            moves &= moves - 1;
+        }
+        return Long.numberOfTrailingZeros(moves);
+    }
+}
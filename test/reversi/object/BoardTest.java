@@ -0,0 +1,84 @@
+package reversi.object;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests of the incremental state of the board: after every move made or taken back, the disks, the counts,
+ * the hash and the cached moves must be those of a board built from scratch.
+ */
+class BoardTest {
+
+    /**
+     * The number of random games played.
+     */
+    private static final int GAMES = 200;
+
+
+    /**
+     * Checks the state along random games, played to the end and then taken back move by move.
+     */
+    @Test
+    void incrementalStateMatchesFreshBoard() {
+        Random random = new Random(1);
+        for (int game = 0; game < GAMES; game++) {
+            Board board = new Board();
+            UndoRecord[] undoStack = new UndoRecord[128];
+            long[] blackStack = new long[128];
+            long[] whiteStack = new long[128];
+            Color color = Color.BLACK;
+            int plies = 0;
+            int passes = 0;
+            while (passes < 2) {
+                assertConsistent(board);
+                long moves = board.getPossibleMovesMask(color);
+                int square = Board.PASS;
+                if (moves != 0) {
+                    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                        moves &= moves - 1;
+                    }
+                    square = Long.numberOfTrailingZeros(moves);
+                    passes = 0;
+                } else {
+                    passes++;
+                }
+                blackStack[plies] = board.getDisks(Color.BLACK);
+                whiteStack[plies] = board.getDisks(Color.WHITE);
+                undoStack[plies] = new UndoRecord();
+                board.makeMove(color, square, undoStack[plies++]);
+                color = color.opposite();
+            }
+            while (plies > 0) {
+                board.unmakeMove(undoStack[--plies]);
+                assertEquals(blackStack[plies], board.getDisks(Color.BLACK));
+                assertEquals(whiteStack[plies], board.getDisks(Color.WHITE));
+                assertConsistent(board);
+            }
+        }
+    }
+
+
+    /**
+     * Checks, that the board agrees with a board built from its disks.
+     *
+     * @param board The board.
+     */
+    private static void assertConsistent(Board board) {
+        long black = board.getDisks(Color.BLACK);
+        long white = board.getDisks(Color.WHITE);
+        Board fresh = new Board();
+        fresh.setDisks(black, white);
+        assertEquals(0, black & white);
+        assertEquals(fresh.getHash(), board.getHash());
+        assertEquals(Long.bitCount(black), board.countDisks(Color.BLACK));
+        assertEquals(Long.bitCount(white), board.countDisks(Color.WHITE));
+        assertEquals(Long.bitCount(~(black | white)), board.countEmpties());
+        assertEquals(Board.generateMoves(black, white), board.getPossibleMovesMask(Color.BLACK));
+        assertEquals(Board.generateMoves(white, black), board.getPossibleMovesMask(Color.WHITE));
+        assertEquals(board.getPossibleMoves(Color.BLACK).size(), Long.bitCount(Board.generateMoves(black, white)));
+    }
+}
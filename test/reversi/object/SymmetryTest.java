@@ -0,0 +1,99 @@
+package reversi.object;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests of the symmetries of the board: the bitboards and the cells must be mapped the same way, and all the
+ * symmetric positions must have the same canonical hash.
+ */
+class SymmetryTest {
+
+    /**
+     * The number of random positions.
+     */
+    private static final int POSITIONS = 500;
+
+
+    /**
+     * Checks, that every cell is mapped by the bitboard mapping as by the mapping of the cells, and that the
+     * inverse symmetry maps it back.
+     */
+    @Test
+    void squaresAndBitboardsAgree() {
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            int inverse = Symmetry.inverse(symmetry);
+            for (int square = 0; square < 64; square++) {
+                int mapped = Symmetry.transformSquare(square, symmetry);
+                assertEquals(1L << mapped, Symmetry.transform(1L << square, symmetry),
+                        "square " + square + ", symmetry " + symmetry);
+                assertEquals(square, Symmetry.transformSquare(mapped, inverse));
+            }
+            assertEquals(Board.PASS, Symmetry.transformSquare(Board.PASS, symmetry));
+        }
+    }
+
+
+    /**
+     * Checks on random positions, that the canonical hash is the same for all the symmetric positions, that it
+     * is the hash of the canonical form, and that the moves are mapped with the disks.
+     */
+    @Test
+    void canonicalHashIsInvariant() {
+        Random random = new Random(11);
+        for (int position = 0; position < POSITIONS; position++) {
+            Board board = randomPosition(random, 1 + random.nextInt(50));
+            long black = board.getDisks(Color.BLACK);
+            long white = board.getDisks(Color.WHITE);
+            for (Color color : Color.values()) {
+                long canonical = board.getCanonicalHash(color);
+                for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                    Board mapped = new Board();
+                    mapped.setDisks(Symmetry.transform(black, symmetry), Symmetry.transform(white, symmetry));
+                    assertEquals(canonical, mapped.getCanonicalHash(color), "symmetry " + symmetry);
+                    assertEquals(mapped.getHash(color), board.getHash(color, symmetry));
+                    assertEquals(Symmetry.transform(board.getPossibleMovesMask(color), symmetry),
+                            mapped.getPossibleMovesMask(color));
+                }
+            }
+            Board canonicalBoard = new Board();
+            int symmetry = board.getCanonicalSymmetry();
+            canonicalBoard.setDisks(Symmetry.transform(black, symmetry), Symmetry.transform(white, symmetry));
+            assertEquals(canonicalBoard.getHash(Color.BLACK), board.getCanonicalHash(Color.BLACK));
+        }
+    }
+
+
+    /**
+     * Playing random moves from the starting position.
+     *
+     * @param random The source of the moves.
+     * @param plies  The number of moves (fewer if the game ends).
+     * @return The board.
+     */
+    private static Board randomPosition(Random random, int plies) {
+        Board board = new Board();
+        Color color = Color.BLACK;
+        for (int ply = 0; ply < plies; ply++) {
+            long moves = board.getPossibleMovesMask(color);
+            if (moves == 0) {
+                color = color.opposite();
+                moves = board.getPossibleMovesMask(color);
+                if (moves == 0) {
+                    break;
+                }
+            }
+            for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--) {
+                moves &= moves - 1;
+            }
+            int square = Long.numberOfTrailingZeros(moves);
+            board.applyMove(color, square, board.getFlips(color, square));
+            color = color.opposite();
+        }
+        return board;
+    }
+}
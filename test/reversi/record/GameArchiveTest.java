@@ -0,0 +1,160 @@
+package reversi.record;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reversi.object.Board;
+import reversi.object.Color;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the archive of the games: the records written by {@link GameRecordWriter} must be read back
+ * unchanged by {@link GameArchive}.
+ */
+class GameArchiveTest {
+
+    /**
+     * The number of random games written.
+     */
+    private static final int GAMES = 100;
+
+    /**
+     * The directory of the archive.
+     */
+    @TempDir
+    Path directory;
+
+
+    /**
+     * Checks the round trip of random games, written by two writers one after another.
+     *
+     * @throws IOException If the archive cannot be written or read.
+     */
+    @Test
+    void writtenGamesAreReadBack() throws IOException {
+        Random random = new Random(3);
+        List<GameRecord> records = new ArrayList<>();
+        for (int game = 0; game < GAMES; game++) {
+            records.add(randomGame(random, game));
+        }
+        Path path = directory.resolve("games.bin");
+        try (GameRecordWriter writer = new GameRecordWriter(path)) {
+            for (GameRecord record : records.subList(0, GAMES / 2)) {
+                writer.append(record);
+            }
+        }
+        try (GameRecordWriter writer = new GameRecordWriter(path)) {
+            for (GameRecord record : records.subList(GAMES / 2, GAMES)) {
+                writer.append(record);
+            }
+            assertEquals(GAMES - GAMES / 2, writer.getCount());
+        }
+
+        GameArchive archive = new GameArchive(path);
+        assertEquals(GAMES, archive.count());
+        GameArchive.Cursor cursor = archive.cursor();
+        for (GameRecord expected : records) {
+            assertTrue(cursor.next());
+            assertRecordEquals(expected, cursor.toRecord());
+            Board board = new Board();
+            cursor.replay(board, cursor.getMoveCount());
+            Board replayed = expected.replay(expected.getMoveCount());
+            assertEquals(replayed.getDisks(Color.BLACK), board.getDisks(Color.BLACK));
+            assertEquals(replayed.getDisks(Color.WHITE), board.getDisks(Color.WHITE));
+            assertEquals(expected.getBlackDisks(), board.countDisks(Color.BLACK));
+            assertEquals(expected.getWhiteDisks(), board.countDisks(Color.WHITE));
+        }
+        assertFalse(cursor.next());
+    }
+
+
+    /**
+     * Checks, that a record cut at the end of the file is ignored.
+     *
+     * @throws IOException If the archive cannot be written or read.
+     */
+    @Test
+    void cutRecordIsIgnored() throws IOException {
+        Random random = new Random(5);
+        GameRecord first = randomGame(random, 0);
+        Path path = directory.resolve("cut.bin");
+        try (GameRecordWriter writer = new GameRecordWriter(path)) {
+            writer.append(first);
+            writer.append(randomGame(random, 1));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        GameArchive archive = new GameArchive(path);
+        assertEquals(1, archive.count());
+        GameArchive.Cursor cursor = archive.cursor();
+        assertTrue(cursor.next());
+        assertRecordEquals(first, cursor.toRecord());
+        assertFalse(cursor.next());
+    }
+
+
+    /**
+     * Playing a random game to the end.
+     *
+     * @param random The source of the moves.
+     * @param game   The number of the game (a part of the names of the players).
+     * @return The record of the game.
+     */
+    private static GameRecord randomGame(Random random, int game) {
+        Board board = new Board();
+        byte[] moves = new byte[GameArchive.MAX_MOVES];
+        int count = 0;
+        Color color = Color.BLACK;
+        int passes = 0;
+        while (passes < 2) {
+            long possible = board.getPossibleMovesMask(color);
+            int square = Board.PASS;
+            if (possible == 0) {
+                passes++;
+            } else {
+                for (int skip = random.nextInt(Long.bitCount(possible)); skip > 0; skip--) {
+                    possible &= possible - 1;
+                }
+                square = Long.numberOfTrailingZeros(possible);
+                board.applyMove(color, square, board.getFlips(color, square));
+                passes = 0;
+            }
+            moves[count++] = (byte) square;
+            color = color.opposite();
+        }
+        // The final passes are not a part of the record.
+        count -= 2;
+        return new GameRecord("Black " + game, "Bílý " + game, board.countDisks(Color.BLACK),
+                board.countDisks(Color.WHITE), 1_700_000_000_000L + game, Arrays.copyOf(moves, count));
+    }
+
+
+    /**
+     * Checks, that two records are the same.
+     *
+     * @param expected The expected record.
+     * @param actual   The actual record.
+     */
+    private static void assertRecordEquals(GameRecord expected, GameRecord actual) {
+        assertEquals(expected.getBlackName(), actual.getBlackName());
+        assertEquals(expected.getWhiteName(), actual.getWhiteName());
+        assertEquals(expected.getBlackDisks(), actual.getBlackDisks());
+        assertEquals(expected.getWhiteDisks(), actual.getWhiteDisks());
+        assertEquals(expected.getTimeMillis(), actual.getTimeMillis());
+        assertArrayEquals(expected.getMoves(), actual.getMoves());
+    }
+}
@@ -0,0 +1,47 @@
+package reversi.tools;
+
+import org.junit.jupiter.api.Test;
+import reversi.object.Board;
+import reversi.object.Color;
+import reversi.object.UndoRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+/**
+ * Tests of the move generation against the known numbers of leaves of the game tree (perft).
+ */
+class PerftTest {
+
+    /**
+     * The known numbers of leaves at the depths 1 to 8 (index 0 is depth 0).
+     */
+    private static final long[] REFERENCE = {1, 4, 12, 56, 244, 1396, 8200, 55092, 390216};
+
+
+    /**
+     * Checks the counts of the bitboards with the moves made and taken back in place.
+     */
+    @Test
+    void fastCountsMatchReference() {
+        for (int depth = 1; depth < REFERENCE.length; depth++) {
+            UndoRecord[] undoStack = new UndoRecord[depth + 1];
+            for (int ply = 0; ply <= depth; ply++) {
+                undoStack[ply] = new UndoRecord();
+            }
+            assertEquals(REFERENCE[depth], Perft.perft(new Board(), Color.BLACK, depth, undoStack),
+                    "perft(" + depth + ")");
+        }
+    }
+
+
+    /**
+     * Checks the counts of the public methods of the board, which use the cached moves.
+     */
+    @Test
+    void apiCountsMatchReference() {
+        for (int depth = 1; depth <= 6; depth++) {
+            assertEquals(REFERENCE[depth], Perft.perftApi(new Board(), Color.BLACK, depth), "perft(" + depth + ")");
+        }
+    }
+}